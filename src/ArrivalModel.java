@@ -0,0 +1,17 @@
+import java.util.Random;
+
+/**
+ * The ArrivalModel interface decides when customers arrive from the street. Instead of rolling dice every tick, a world
+ * asks its model for the time until the next arrival and schedules it on its timing wheel, so the cost of arrivals does
+ * not depend on how rare or frequent they are.
+ */
+public interface ArrivalModel {
+    /**
+     * Draws the time from now until the next customer arrives.
+     * @param time The simulated time in milliseconds
+     * @param reputationFixed The reputation of the shop, in hundredths
+     * @param random The world's source of randomness, so the draw is part of the seeded session
+     * @return The delay in milliseconds, at least 0
+     */
+    long nextArrivalDelay(long time, long reputationFixed, Random random);
+}
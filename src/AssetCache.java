@@ -0,0 +1,329 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import javax.imageio.ImageIO;
+
+/**
+ * The AssetCache class decodes each image and font file once and shares it between every object that draws it, so
+ * spawning a customer or a piece of waste no longer reads and decodes its PNG again. It also counts hits, misses and the
+ * time spent decoding, which the GameMetrics MBean reports.
+ * Sprites are kept separately at the exact size they are drawn at and in the screen's own pixel format, so drawing one
+ * is a plain copy that Java2D can accelerate instead of a scale and format conversion on every frame. Each image also
+ * has a chain of mipmaps, every level half the size of the one before, and a sprite of a given size is scaled from the
+ * smallest level that is still at least that big. That keeps small sprites of large images sharp without aliasing, and
+ * makes scaling for a new zoom level cheap.
+ * Scaled images are kept in least recently used order and the oldest are dropped once they take more than
+ * MAX_SCALED_BYTES, so resizing the window through many zoom levels does not keep every size forever. Sprites ask for
+ * new sizes with getScaledImageLater(), which scales them on a background thread instead of in the middle of a paint.
+ */
+public class AssetCache {
+    private static final ConcurrentHashMap<String, BufferedImage> images = new ConcurrentHashMap<>();
+    private static final LinkedHashMap<String, BufferedImage> scaledImages = new LinkedHashMap<>(64, 0.75f, true);
+    private static final long MAX_SCALED_BYTES = 64L << 20;
+    private static long scaledBytes;
+    private static final ConcurrentHashMap<String, Boolean> scaling = new ConcurrentHashMap<>();
+    private static final ExecutorService scaler = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "asset-scaler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final ConcurrentHashMap<String, BufferedImage[]> mipmaps = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Sprite> sprites = new ConcurrentHashMap<>();
+    private static final int MIN_MIPMAP_SIZE = 8;
+    private static final ConcurrentHashMap<String, Font> fonts = new ConcurrentHashMap<>();
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+    private static final LongAdder loadNanos = new LongAdder();
+
+    /**
+     * Gets an image, decoding it on first use. Images in the asset pack are copied from it without decoding; others are
+     * decoded from their own file.
+     * @param fileName The image file
+     * @return The decoded image, or null if it could not be read
+     */
+    public static BufferedImage getImage(String fileName) {
+        BufferedImage image = images.get(fileName);
+        if (image != null) {
+            hits.increment();
+            return image;
+        }
+        misses.increment();
+        long start = System.nanoTime();
+        AssetPack pack = AssetPack.getDefault();
+        if (pack != null) {
+            image = pack.getImage(fileName);
+        }
+        try {
+            if (image == null) {
+                image = ImageIO.read(new File(fileName));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        loadNanos.add(System.nanoTime() - start);
+        if (image == null) {
+            return null;
+        }
+        BufferedImage previous = images.putIfAbsent(fileName, image);
+        return previous != null ? previous : image;
+    }
+
+    /**
+     * Gets an image scaled to a fixed size and converted to a format compatible with the screen, decoding, scaling and
+     * converting it on first use. Draw the result without a size so it is not scaled again.
+     * @param fileName The image file
+     * @param width Width to scale to
+     * @param height Height to scale to
+     * @return The scaled image, or null if the file could not be read
+     */
+    public static BufferedImage getScaledImage(String fileName, int width, int height) {
+        String key = fileName + "@" + width + "x" + height;
+        BufferedImage scaled = getCachedScaledImage(key);
+        if (scaled != null) {
+            hits.increment();
+            return scaled;
+        }
+        BufferedImage image = getMipmap(fileName, width, height);
+        if (image == null) {
+            return null;
+        }
+        scaled = createCompatibleImage(width, height, image.getTransparency());
+        Graphics2D g2d = scaled.createGraphics();
+        g2d.setComposite(AlphaComposite.Src);
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g2d.drawImage(image, 0, 0, width, height, null);
+        g2d.dispose();
+        return putScaledImage(key, scaled);
+    }
+
+    /**
+     * Gets an image scaled to a fixed size if it has been scaled already, and otherwise starts scaling it on a
+     * background thread and returns null at once, so painting never waits for a scale. Draw something else, such as
+     * getNearestImage(), until the scaled image is there.
+     * @param fileName The image file
+     * @param width Width to scale to
+     * @param height Height to scale to
+     * @return The scaled image, or null if it is not ready yet or the file could not be read
+     */
+    public static BufferedImage getScaledImageLater(String fileName, int width, int height) {
+        String key = fileName + "@" + width + "x" + height;
+        BufferedImage scaled = getCachedScaledImage(key);
+        if (scaled != null) {
+            hits.increment();
+            return scaled;
+        }
+        if (scaling.putIfAbsent(key, Boolean.TRUE) == null) {
+            scaler.execute(() -> {
+                try {
+                    getScaledImage(fileName, width, height);
+                } finally {
+                    scaling.remove(key);
+                }
+            });
+        }
+        return null;
+    }
+
+    /**
+     * Gets the unscaled image or mipmap level closest to a size, to draw scaled by Java2D while the image at that size
+     * is not ready.
+     * @param fileName The image file
+     * @param width The width needed
+     * @param height The height needed
+     * @return The image, or null if the file could not be read
+     */
+    public static BufferedImage getNearestImage(String fileName, int width, int height) {
+        return getMipmap(fileName, width, height);
+    }
+
+    /**
+     * Looks up a scaled image and marks it as the most recently used.
+     * @param key File name and size of the image
+     * @return The scaled image, or null if it is not cached
+     */
+    private static BufferedImage getCachedScaledImage(String key) {
+        synchronized (scaledImages) {
+            return scaledImages.get(key);
+        }
+    }
+
+    /**
+     * Caches a scaled image, dropping the least recently used ones while the cache is over MAX_SCALED_BYTES. The
+     * image just added is always kept.
+     * @param key File name and size of the image
+     * @param scaled The scaled image
+     * @return The cached image, which is an earlier one if another thread scaled the same image first
+     */
+    private static BufferedImage putScaledImage(String key, BufferedImage scaled) {
+        synchronized (scaledImages) {
+            BufferedImage previous = scaledImages.putIfAbsent(key, scaled);
+            if (previous != null) {
+                return previous;
+            }
+            scaledBytes += getBytes(scaled);
+            Iterator<Map.Entry<String, BufferedImage>> eldest = scaledImages.entrySet().iterator();
+            while (scaledBytes > MAX_SCALED_BYTES && eldest.hasNext()) {
+                Map.Entry<String, BufferedImage> entry = eldest.next();
+                if (entry.getKey().equals(key)) continue;
+                scaledBytes -= getBytes(entry.getValue());
+                eldest.remove();
+            }
+            return scaled;
+        }
+    }
+
+    /**
+     * Estimates the memory an image takes.
+     * @param image The image
+     * @return Its size in bytes, at four bytes a pixel
+     */
+    private static long getBytes(BufferedImage image) {
+        return (long) image.getWidth() * image.getHeight() * 4;
+    }
+
+    /**
+     * Gets the smallest mipmap level of an image that is at least a given size, building the image's mipmaps on first
+     * use.
+     * @param fileName The image file
+     * @param width The width needed
+     * @param height The height needed
+     * @return The mipmap level, which is the full image if no smaller level is big enough, or null if the file could
+     *         not be read
+     */
+    private static BufferedImage getMipmap(String fileName, int width, int height) {
+        BufferedImage[] levels = mipmaps.get(fileName);
+        if (levels == null) {
+            BufferedImage image = getImage(fileName);
+            if (image == null) {
+                return null;
+            }
+            levels = mipmaps.computeIfAbsent(fileName, name -> buildMipmaps(image));
+        }
+        for (int i = levels.length - 1; i > 0; i--) {
+            if (levels[i].getWidth() >= width && levels[i].getHeight() >= height) {
+                return levels[i];
+            }
+        }
+        return levels[0];
+    }
+
+    /**
+     * Builds the mipmap chain of an image by halving it until it would get smaller than MIN_MIPMAP_SIZE.
+     * @param image The full image, which is level 0
+     * @return The levels, largest first
+     */
+    private static BufferedImage[] buildMipmaps(BufferedImage image) {
+        ArrayList<BufferedImage> levels = new ArrayList<>();
+        levels.add(image);
+        BufferedImage level = image;
+        while (level.getWidth() / 2 >= MIN_MIPMAP_SIZE && level.getHeight() / 2 >= MIN_MIPMAP_SIZE) {
+            BufferedImage half = new BufferedImage(level.getWidth() / 2, level.getHeight() / 2,
+                    image.getTransparency() == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB_PRE);
+            Graphics2D g2d = half.createGraphics();
+            g2d.setComposite(AlphaComposite.Src);
+            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g2d.drawImage(level, 0, 0, half.getWidth(), half.getHeight(), null);
+            g2d.dispose();
+            levels.add(half);
+            level = half;
+        }
+        return levels.toArray(new BufferedImage[0]);
+    }
+
+    /**
+     * Gets the sprite of an image at a size in game coordinates, shared by everything that draws it. The sprite picks
+     * the pixel size to draw at from the zoom when it is drawn.
+     * @param fileName The image file
+     * @param width Width in game coordinates
+     * @param height Height in game coordinates
+     * @return The sprite, or null if the file could not be read
+     */
+    public static Sprite getSprite(String fileName, int width, int height) {
+        String key = fileName + "@" + width + "x" + height;
+        Sprite sprite = sprites.get(key);
+        if (sprite != null) {
+            hits.increment();
+            return sprite;
+        }
+        if (getImage(fileName) == null) {
+            return null;
+        }
+        sprite = new Sprite(fileName, width, height);
+        Sprite previous = sprites.putIfAbsent(key, sprite);
+        return previous != null ? previous : sprite;
+    }
+
+    /**
+     * Creates an empty image in the pixel format of the default screen, or in premultiplied ARGB without a screen.
+     * @param width Width of the image
+     * @param height Height of the image
+     * @param transparency Transparency of the image, as in java.awt.Transparency
+     * @return The image
+     */
+    private static BufferedImage createCompatibleImage(int width, int height, int transparency) {
+        if (!GraphicsEnvironment.isHeadless()) {
+            GraphicsConfiguration config = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+            return config.createCompatibleImage(width, height, transparency);
+        }
+        return new BufferedImage(width, height, transparency == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB_PRE);
+    }
+
+    /**
+     * Gets a TrueType font, reading and registering it on first use.
+     * @param fileName The font file
+     * @param size The point size of the font
+     * @return The font in the given size, or null if it could not be read
+     */
+    public static Font getFont(String fileName, float size) {
+        Font font = fonts.get(fileName);
+        if (font != null) {
+            hits.increment();
+            return font.deriveFont(size);
+        }
+        misses.increment();
+        long start = System.nanoTime();
+        try {
+            AssetPack pack = AssetPack.getDefault();
+            byte[] packed = pack != null ? pack.getBytes(fileName) : null;
+            font = packed != null ? Font.createFont(Font.TRUETYPE_FONT, new ByteArrayInputStream(packed))
+                    : Font.createFont(Font.TRUETYPE_FONT, new File(fileName));
+            GraphicsEnvironment ge = GraphicsEnvironment.getLocalGraphicsEnvironment();
+            ge.registerFont(font);
+        } catch (IOException | FontFormatException e) {
+            e.printStackTrace();
+        }
+        loadNanos.add(System.nanoTime() - start);
+        if (font == null) {
+            return null;
+        }
+        Font previous = fonts.putIfAbsent(fileName, font);
+        return (previous != null ? previous : font).deriveFont(size);
+    }
+
+    // Statistics for the GameMetrics MBean.
+    public static long getHits() { return hits.sum(); }
+    public static long getMisses() { return misses.sum(); }
+    public static long getLoadNanos() { return loadNanos.sum(); }
+    public static int getSize() { return images.size() + getScaledCount() + mipmaps.size() + fonts.size(); }
+
+    /**
+     * Gets the number of scaled images in the cache.
+     * @return The number of scaled images
+     */
+    private static int getScaledCount() {
+        synchronized (scaledImages) {
+            return scaledImages.size();
+        }
+    }
+}
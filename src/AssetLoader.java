@@ -0,0 +1,115 @@
+import java.util.ArrayList;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The AssetLoader class decodes every image and font the game knows about before the window opens. Decoding is split
+ * over a small pool of threads instead of happening one file after another, and each decoded asset goes into the
+ * AssetCache, where the Driver, customers, items and the shop pick it up without decoding it again.
+ */
+public class AssetLoader {
+    public static final String FONT_FILE = "Neucha-Regular.ttf";
+    public static final String[] SCREEN_IMAGES = {"menuImage.png", "backgroundImage.png", "aboutMenu.png",
+            "instructionMenu.png", "Cashier Table.png", "entrance.png"};
+    public static final String[] EFFECT_IMAGES = {"heart.png", "payment.png", "waste.png"};
+
+    /**
+     * The ProgressListener interface is told each time an asset has been decoded. It is called from the loading threads.
+     */
+    public interface ProgressListener {
+        void onProgress(int loaded, int total);
+    }
+
+    private final int threads;
+
+    /**
+     * Constructor.
+     * Initializes a loader that decodes on up to one thread per core, at most four, since decoding large PNGs at the
+     * same time also needs memory for each of them.
+     */
+    public AssetLoader() {
+        this(Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors())));
+    }
+
+    /**
+     * Constructor.
+     * Initializes a loader with a fixed number of decoding threads.
+     * @param threads Number of decoding threads
+     */
+    public AssetLoader(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Lists every image file the game draws: the screens, the customers, the interaction and waste images and every
+     * catalog item.
+     * @return The image files
+     */
+    public static ArrayList<String> knownImages() {
+        ArrayList<String> files = new ArrayList<>();
+        for (String file : SCREEN_IMAGES) {
+            files.add(file);
+        }
+        for (int i = 1; i <= GameWorld.CUSTOMER_IMAGE_COUNT; i++) {
+            files.add("customer" + i + ".png");
+        }
+        for (String file : EFFECT_IMAGES) {
+            files.add(file);
+        }
+        for (Item item : ShopCatalog.createItems()) {
+            files.add(item.getType() + ".png");
+        }
+        return files;
+    }
+
+    /**
+     * Decodes the font and every known image into the AssetCache and waits until all of them are done. Files that
+     * cannot be read are reported by the AssetCache and skipped; the game then loads them again on first use.
+     * @param listener Told about progress, or null
+     * @throws InterruptedException If the loading is interrupted
+     */
+    public void loadAll(ProgressListener listener) throws InterruptedException {
+        ArrayList<String> images = knownImages();
+        int total = images.size() + 1;
+        AtomicInteger loaded = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "asset-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            ArrayList<Future<?>> tasks = new ArrayList<>();
+            tasks.add(executor.submit(() -> {
+                AssetCache.getFont(FONT_FILE, 12f);
+                progress(listener, loaded.incrementAndGet(), total);
+            }));
+            for (String file : images) {
+                tasks.add(executor.submit(() -> {
+                    AssetCache.getImage(file);
+                    progress(listener, loaded.incrementAndGet(), total);
+                }));
+            }
+            for (Future<?> task : tasks) {
+                try {
+                    task.get();
+                } catch (ExecutionException e) {
+                    e.getCause().printStackTrace();
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Passes progress to the listener if there is one.
+     * @param listener The listener, or null
+     * @param loaded Number of assets done
+     * @param total Number of assets to load
+     */
+    private static void progress(ProgressListener listener, int loaded, int total) {
+        if (listener != null) {
+            listener.onProgress(loaded, total);
+        }
+    }
+}
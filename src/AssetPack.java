@@ -0,0 +1,145 @@
+import java.awt.color.ColorSpace;
+import java.awt.image.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+
+/**
+ * The AssetPack class reads the asset pack written by the AssetPacker: one file holding every image already decoded to
+ * premultiplied ARGB pixels, and other assets such as the font as they are on disk. The pack is memory-mapped, so
+ * opening it only reads the index, and an image is made by copying its pixels straight from the mapping into the
+ * image's raster with no PNG decoding.
+ * <pre>
+ * "CFPK", version, entry count                        (ints)
+ * per entry: name length (short), name (UTF-8), kind (byte), width, height (ints), offset, length (longs)
+ * data: pixels as little-endian ints, row by row, or the raw bytes of the file
+ * </pre>
+ */
+public class AssetPack {
+    public static final String DEFAULT_FILE = "assets.pack";
+    static final int MAGIC = 0x4346504B; // "CFPK"
+    static final int VERSION = 1;
+    static final byte KIND_OPAQUE_IMAGE = 0;
+    static final byte KIND_TRANSLUCENT_IMAGE = 1;
+    static final byte KIND_FILE = 2;
+
+    private static AssetPack defaultPack;
+    private static boolean defaultPackOpened;
+
+    private final MappedByteBuffer data;
+    private final HashMap<String, Entry> entries = new HashMap<>();
+
+    /**
+     * The Entry class is the index entry of one asset in the pack.
+     */
+    private static class Entry {
+        byte kind;
+        int width, height;
+        long offset, length;
+    }
+
+    /**
+     * Constructor.
+     * Maps a pack file and reads its index.
+     * @param file The pack file
+     * @throws IOException If the file cannot be read or is not an asset pack
+     */
+    public AssetPack(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        data.order(ByteOrder.LITTLE_ENDIAN);
+        if (data.getInt() != MAGIC || data.getInt() != VERSION) {
+            throw new IOException(file + " is not a version " + VERSION + " asset pack");
+        }
+        int count = data.getInt();
+        for (int i = 0; i < count; i++) {
+            byte[] name = new byte[data.getShort() & 0xFFFF];
+            data.get(name);
+            Entry entry = new Entry();
+            entry.kind = data.get();
+            entry.width = data.getInt();
+            entry.height = data.getInt();
+            entry.offset = data.getLong();
+            entry.length = data.getLong();
+            entries.put(new String(name, StandardCharsets.UTF_8), entry);
+        }
+    }
+
+    /**
+     * Gets the pack in the working directory, opening it on first use.
+     * @return The pack, or null if there is none or it cannot be read, in which case assets are loaded from their own
+     *         files
+     */
+    public static synchronized AssetPack getDefault() {
+        if (!defaultPackOpened) {
+            defaultPackOpened = true;
+            File file = new File(DEFAULT_FILE);
+            if (file.isFile()) {
+                try {
+                    defaultPack = new AssetPack(file);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+        return defaultPack;
+    }
+
+    /**
+     * Makes an image from the pack. Its pixels are copied from the mapping into a new raster in one bulk copy.
+     * @param fileName Name of the image file the pack was made from
+     * @return The image, or null if the pack does not have it
+     */
+    public BufferedImage getImage(String fileName) {
+        Entry entry = entries.get(fileName);
+        if (entry == null || entry.kind == KIND_FILE) {
+            return null;
+        }
+        int[] pixels = new int[entry.width * entry.height];
+        slice(entry).asIntBuffer().get(pixels);
+        DirectColorModel colorModel = entry.kind == KIND_OPAQUE_IMAGE
+                ? new DirectColorModel(24, 0xFF0000, 0xFF00, 0xFF)
+                : new DirectColorModel(ColorSpace.getInstance(ColorSpace.CS_sRGB), 32, 0xFF0000, 0xFF00, 0xFF, 0xFF000000, true, DataBuffer.TYPE_INT);
+        WritableRaster raster = Raster.createPackedRaster(new DataBufferInt(pixels, pixels.length), entry.width, entry.height,
+                entry.width, colorModel.getMasks(), null);
+        return new BufferedImage(colorModel, raster, colorModel.isAlphaPremultiplied(), null);
+    }
+
+    /**
+     * Gets a file stored in the pack as it was on disk.
+     * @param fileName Name of the file
+     * @return The file's bytes, or null if the pack does not have it
+     */
+    public byte[] getBytes(String fileName) {
+        Entry entry = entries.get(fileName);
+        if (entry == null || entry.kind != KIND_FILE) {
+            return null;
+        }
+        byte[] bytes = new byte[(int) entry.length];
+        slice(entry).get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Gets the data of an entry as its own buffer, so several threads can read from the pack at once.
+     * @param entry The entry
+     * @return A little-endian buffer over the entry's data
+     */
+    private ByteBuffer slice(Entry entry) {
+        ByteBuffer buffer = data.duplicate();
+        buffer.position((int) entry.offset);
+        buffer.limit((int) (entry.offset + entry.length));
+        return buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // Getters for the AssetPack class attributes.
+    public int getEntryCount() { return entries.size(); }
+    public boolean contains(String fileName) { return entries.containsKey(fileName); }
+}
@@ -0,0 +1,135 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import javax.imageio.ImageIO;
+
+/**
+ * The AssetPacker class is the build step that makes the asset pack read by AssetPack. It decodes every image the game
+ * knows about once, converts it to premultiplied ARGB and writes the raw pixels, and copies the font as it is, all into
+ * one file with a small index at the front. Files that are missing are left out, and the game loads them from their own
+ * files as before.
+ * Usage: java AssetPacker [assets.pack]
+ */
+public class AssetPacker {
+
+    /**
+     * The Asset class is one asset ready to be written.
+     */
+    private static class Asset {
+        String name;
+        byte kind;
+        int width, height;
+        byte[] data;
+    }
+
+    /**
+     * Writes a pack of the given files.
+     * @param files Names of the files, read from the working directory
+     * @param pack The pack file to write
+     * @return Number of assets packed
+     * @throws IOException If the pack cannot be written
+     */
+    public static int pack(ArrayList<String> files, File pack) throws IOException {
+        ArrayList<Asset> assets = new ArrayList<>();
+        for (String file : files) {
+            Asset asset = read(file);
+            if (asset != null) {
+                assets.add(asset);
+            }
+        }
+
+        int indexSize = 12;
+        for (Asset asset : assets) {
+            indexSize += 2 + asset.name.getBytes(StandardCharsets.UTF_8).length + 1 + 8 + 16;
+        }
+        ByteBuffer index = ByteBuffer.allocate(indexSize).order(ByteOrder.LITTLE_ENDIAN);
+        index.putInt(AssetPack.MAGIC).putInt(AssetPack.VERSION).putInt(assets.size());
+        long offset = indexSize;
+        for (Asset asset : assets) {
+            byte[] name = asset.name.getBytes(StandardCharsets.UTF_8);
+            index.putShort((short) name.length).put(name).put(asset.kind).putInt(asset.width).putInt(asset.height);
+            index.putLong(offset).putLong(asset.data.length);
+            offset += asset.data.length;
+        }
+
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(pack), 1 << 16)) {
+            out.write(index.array());
+            for (Asset asset : assets) {
+                out.write(asset.data);
+            }
+        }
+        return assets.size();
+    }
+
+    /**
+     * Reads one asset: images are decoded to premultiplied ARGB pixels, other files are kept as they are.
+     * @param file The file
+     * @return The asset, or null if the file cannot be read
+     */
+    private static Asset read(String file) {
+        Asset asset = new Asset();
+        asset.name = file;
+        try {
+            String lowerCase = file.toLowerCase();
+            if (!lowerCase.endsWith(".png") && !lowerCase.endsWith(".jpg") && !lowerCase.endsWith(".jpeg")) {
+                asset.kind = AssetPack.KIND_FILE;
+                asset.data = Files.readAllBytes(new File(file).toPath());
+                return asset;
+            }
+            BufferedImage decoded = ImageIO.read(new File(file));
+            if (decoded == null) {
+                return null;
+            }
+            int width = decoded.getWidth();
+            int height = decoded.getHeight();
+            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+            Graphics2D g2d = image.createGraphics();
+            g2d.setComposite(AlphaComposite.Src);
+            g2d.drawImage(decoded, 0, 0, null);
+            g2d.dispose();
+            int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            ByteBuffer data = ByteBuffer.allocate(pixels.length * 4).order(ByteOrder.LITTLE_ENDIAN);
+            data.asIntBuffer().put(pixels);
+            asset.kind = decoded.getTransparency() == Transparency.OPAQUE || isOpaque(pixels)
+                    ? AssetPack.KIND_OPAQUE_IMAGE : AssetPack.KIND_TRANSLUCENT_IMAGE;
+            asset.width = width;
+            asset.height = height;
+            asset.data = data.array();
+            return asset;
+        } catch (IOException e) {
+            System.err.println("Skipping " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Checks if every pixel of an image is fully opaque, so it can be drawn without blending.
+     * @param pixels The pixels as premultiplied ARGB
+     * @return True if no pixel has any transparency
+     */
+    private static boolean isOpaque(int[] pixels) {
+        for (int pixel : pixels) {
+            if (pixel >>> 24 != 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        File pack = new File(args.length > 0 ? args[0] : AssetPack.DEFAULT_FILE);
+        ArrayList<String> files = AssetLoader.knownImages();
+        files.add(AssetLoader.FONT_FILE);
+        long start = System.nanoTime();
+        int count = pack(files, pack);
+        System.out.printf("Packed %d of %d assets into %s (%.1f MB) in %.1f s%n", count, files.size(), pack,
+                pack.length() / 1e6, (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -1,157 +1,367 @@
 import java.awt.*;
-import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
 import java.util.*;
-import javax.imageio.ImageIO;
 
 /**
  * The Customer class represents a customer in the game. Customers move around the shop, interact with items, pay at the
- * cashier, and eventually leave. The class handles customer movement, interactions, and rendering. It mainly uses the A*
- * search algorithm for the movement logic.
+ * cashier, and eventually leave. The class handles customer movement, interactions, and rendering. Paths are planned
+ * with a D* Lite PathPlanner, which repairs them when items are placed or picked up.
  */
 public class Customer {
     private int x, y;
+    // Where the customer was before the simulation step in which they last moved, for drawing them gliding from there
+    private int previousX, previousY;
+    private long glideStep = Long.MIN_VALUE; // Start of that simulation step
+    private long glideStart; // End of that simulation step, when it is first drawn
+    private long glideMinimum; // Length of that simulation step
+    private int glideTiles; // Tiles the customer moved in that simulation step
+    private long lastStepTime;
     private int targetX, targetY;
     private int satisfaction;
     private int imageIndex;
     private boolean hasPaid;
-    private boolean isPaused;
     private int tileSize;
     private int screenWidth, screenHeight;
     private Random random;
-    private BufferedImage image;
-    private BufferedImage heartImage;
+    private Sprite image;
+    private Sprite heartImage;
     Font sherryFont;
-    private Queue<Point> path;
+    private TilePath path;
+    private PathPlanner planner;
     private static final int MOVE_DELAY = 111;
-    private long lastMoveTime;
+    private static final int WALK_DELAY = GameWorld.TICK_MILLIS;
+    private static final int INTERACTION_DURATION = 4000;
+    private static final int PAYMENT_DURATION = 4000;
+    private static final double INTERACTION_CHANCE = 0.2; // Chance of interacting with each item within one tile
     private boolean interactingWithItem;
+    private boolean interactionDue; // A coarse move ended on a step where the customer will start an interaction
     private long interactionStartTime;
     private Item currentItem;
-    private BufferedImage paymentImage;
+    private Sprite paymentImage;
     private boolean isPaying;
-    private long paymentStartTime;
+    private boolean imagesLoaded;
+    private GameWorld world;
+    private int roomsVisited = 1;
+    private final TimedEvent nextAction = new TimedEvent(this::act);
+    private final TimedEvent interactionEnd = new TimedEvent(this::endInteraction);
 
     /**
      * Constructor.
-     * Initializes a new Customer with given position, satisfaction, image index, tile size, and screen dimensions.
+     * Initializes a new Customer with given position, satisfaction and image index in the given world.
+     * @param world The world the customer is in, which provides the clock, the grid size and the randomness
      * @param x Initial x position of the customer
      * @param y Initial y position of the customer
      * @param satisfaction Initial satisfaction level of the customer
      * @param imageIndex Index for selecting the customer's image
-     * @param tileSize Size of each tile in the game grid
-     * @param screenWidth Width of the game screen
-     * @param screenHeight Height of the game screen
      */
-    public Customer(int x, int y, int satisfaction, int imageIndex, int tileSize, int screenWidth, int screenHeight) {
-        try {
-            sherryFont = Font.createFont(Font.TRUETYPE_FONT, new File("Neucha-Regular.ttf")).deriveFont(12f);
-            GraphicsEnvironment ge = GraphicsEnvironment.getLocalGraphicsEnvironment();
-            ge.registerFont(sherryFont);
-        } catch (IOException | FontFormatException e) {
-            e.printStackTrace();
-        }
-
+    public Customer(GameWorld world, int x, int y, int satisfaction, int imageIndex) {
+        this.world = world;
         this.x = x;
         this.y = y;
+        this.previousX = x;
+        this.previousY = y;
         this.targetX = x;
         this.targetY = y;
         this.satisfaction = satisfaction;
         this.imageIndex = imageIndex;
-        this.tileSize = tileSize;
-        this.screenWidth = screenWidth;
-        this.screenHeight = screenHeight;
+        this.tileSize = world.getTileSize();
+        this.screenWidth = world.getWidth();
+        this.screenHeight = world.getHeight();
         this.hasPaid = false;
-        this.isPaused = false;
-        this.random = new Random();
-        this.path = new LinkedList<>();
-        this.lastMoveTime = System.currentTimeMillis();
+        this.random = new Random(world.getRandom().nextLong());
+        this.path = new TilePath(32);
         this.interactingWithItem = false;
         this.interactionStartTime = 0;
         this.currentItem = null;
-        loadImage();
     }
 
     /**
-     * Loads customer and interaction images.
+     * Moves the customer into another room they walked into through a doorway. They keep their image and have already
+     * paid, so they come in at the entrance with fresh satisfaction and wander the new room.
+     * @param world The room the customer enters
+     */
+    void enterRoom(GameWorld world) {
+        this.world = world;
+        this.x = world.getEntranceX();
+        this.y = tileSize;
+        this.previousX = x;
+        this.previousY = y;
+        this.targetX = x;
+        this.targetY = y;
+        this.screenWidth = world.getWidth();
+        this.screenHeight = world.getHeight();
+        this.satisfaction = random.nextInt(50) + 50;
+        this.path.clear();
+        this.interactingWithItem = false;
+        this.currentItem = null;
+        roomsVisited++;
+    }
+
+    /**
+     * Loads customer and interaction images and the font. This is done on the first render rather than in the
+     * constructor so customers in a headless simulation never decode images.
      */
     private void loadImage() {
-        try {
-            BufferedImage rawImage = ImageIO.read(new File("customer" + imageIndex + ".png"));
-            image = new BufferedImage(tileSize, tileSize, BufferedImage.TYPE_INT_ARGB);
-            Graphics2D g2d = image.createGraphics();
-            g2d.drawImage(rawImage, 0, 0, tileSize, tileSize, null);
-            g2d.dispose();
-
-            heartImage = ImageIO.read(new File("heart.png"));
-            paymentImage = ImageIO.read(new File("payment.png"));
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        imagesLoaded = true;
+        sherryFont = AssetCache.getFont(AssetLoader.FONT_FILE, 12f);
+
+        // Sprites are shared between customers and drawn at the pixel size of the current zoom
+        image = AssetCache.getSprite("customer" + imageIndex + ".png", tileSize, tileSize);
+        heartImage = AssetCache.getSprite("heart.png", 50, 50);
+        paymentImage = AssetCache.getSprite("payment.png", 13, 13);
     }
 
     /**
-     * Renders the customer, heart image during interaction, and payment image during payment.
+     * Renders the customer, heart image during interaction, and payment image during payment, at the current simulated
+     * time.
      * @param g Graphics object used for drawing
      */
     public void render(Graphics g) {
-        g.setColor(new Color(250, 250, 250, 150));
-        g.fillRect(x, y - 10, 50, 10);
+        render(g, world.getTime());
+    }
+
+    /**
+     * Renders the customer at a simulated time that may lie between two ticks. The customer is drawn part of the way
+     * from where they were before the simulation step in which they last moved to the tile they are on, so they glide
+     * along however rarely the simulation steps, even when they walked several tiles in one simulation step.
+     * @param g Graphics object used for drawing
+     * @param time The simulated time to draw at, in milliseconds
+     */
+    public void render(Graphics g, double time) {
+        render(g, time, true, true);
+    }
+
+    /**
+     * Renders the customer at a simulated time, leaving out details the QualityGovernor has dropped.
+     * @param g Graphics object used for drawing
+     * @param time The simulated time to draw at, in milliseconds; at or after the end of the step, the customer is drawn
+     *             on their tile
+     * @param showLabel Whether to draw the satisfaction label above the customer
+     * @param showOverlays Whether to draw the heart during an interaction and the payment image during payment
+     */
+    public void render(Graphics g, double time, boolean showLabel, boolean showOverlays) {
+        if (!imagesLoaded) {
+            loadImage();
+        }
+
+        double fraction = getStepFraction(time);
+        int drawX = previousX + (int) Math.round((x - previousX) * fraction);
+        int drawY = previousY + (int) Math.round((y - previousY) * fraction);
+
+        if (showLabel) {
+            g.setColor(new Color(250, 250, 250, 150));
+            g.fillRect(drawX, drawY - 10, 50, 10);
+        }
 
         if (image != null) {
-            g.setColor(Color.BLACK);
-            g.setFont(sherryFont);
-            g.drawString("" + satisfaction, x + 20, y);
-            g.drawImage(image, x, y, tileSize, tileSize, null);
+            if (showLabel) {
+                g.setColor(Color.BLACK);
+                g.setFont(sherryFont);
+                g.drawString("" + satisfaction, drawX + 20, drawY);
+            }
+            image.draw(g, drawX, drawY);
         } else {
             g.setColor(Color.RED);
-            g.fillRect(x, y, tileSize, tileSize); // Placeholder
+            g.fillRect(drawX, drawY, tileSize, tileSize); // Placeholder
         }
 
-        if (interactingWithItem && heartImage != null) {
-            g.drawImage(heartImage, x + 20, y - 30, 50, 50, null);
+        if (showOverlays && interactingWithItem && heartImage != null) {
+            heartImage.draw(g, drawX + 20, drawY - 30);
         }
 
-        if (isPaying && paymentImage != null) {
-            g.drawImage(paymentImage, x + 35, y - 10, 13, 13, null);
+        if (showOverlays && isPaying && paymentImage != null) {
+            paymentImage.draw(g, drawX + 35, drawY - 10);
         }
     }
 
     /**
-     * Moves the customer based on their state and interactions.
-     * @param items List of items in the shop
-     * @param driver The main game driver controlling the game logic
+     * Gets how much of the customer's last glide has passed. The glide starts when the simulation step in which they
+     * moved is first drawn, at its end, and lasts until their next action, but no longer than MOVE_DELAY per tile, so a
+     * customer who stops to pay does not creep into the cashier for the whole payment. It always lasts at least as
+     * long as a simulation step, so a customer who walks on in the next step keeps moving.
+     * @param time The simulated time
+     * @return 0 where the customer was before the step, up to 1 on the tile they are on
      */
-    public void move(ArrayList<Item> items, Driver driver) {
-        if (!isPaused && satisfaction > 0) {
-            long currentTime = System.currentTimeMillis();
+    private double getStepFraction(double time) {
+        long duration = nextAction.isScheduled()
+                ? Math.min(nextAction.getDeadline() - lastStepTime, (long) glideTiles * MOVE_DELAY) : 0;
+        duration = Math.max(duration, glideMinimum);
+        if (duration <= 0 || time >= glideStart + duration) {
+            return 1;
+        }
+        return Math.max(0, (time - glideStart) / duration);
+    }
+
+    /**
+     * Starts the customer's behaviour. From now on the customer acts whenever one of their deadlines on the world's
+     * timing wheel is reached, instead of checking the clock every tick.
+     */
+    public void start() {
+        world.schedule(nextAction, world.getTime());
+    }
+
+    /**
+     * Performs the customer's next step and schedules the one after it. Walking to the cashier and back to the entrance
+     * takes one tile every WALK_DELAY, wandering one tile every MOVE_DELAY, and paying holds the customer for
+     * PAYMENT_DURATION.
+     * A customer outside the world's viewport takes several steps at once, as many as GameWorld.getStepsPerUpdate()
+     * says, and waits as long as the steps would have taken. They are back to one step at a time as soon as they act
+     * within the viewport.
+     * @param time The simulated time
+     */
+    private void act(long time) {
+        ArrayList<Item> items = world.getItems();
+        int steps = world.getStepsPerUpdate(x, y);
+        if (!hasPaid) {
+            if (isPaying) {
+                // Payment complete
+                isPaying = false;
+                hasPaid = true;
+                world.getHeatmap().recordDwell(world.getGrid().tileAt(x, y), PAYMENT_DURATION, time);
+                world.customerPaid(this);
+                world.schedule(nextAction, time + WALK_DELAY);
+            } else {
+                long delay = 0;
+                for (int step = 0; step < steps && !isPaying; step++) {
+                    moveToCashierTable(items);
+                    delay += WALK_DELAY;
+                }
+                world.schedule(nextAction, time + (isPaying ? delay - WALK_DELAY + PAYMENT_DURATION : delay));
+            }
+        } else if (satisfaction > 0) {
             if (interactingWithItem) {
-                if (currentTime - interactionStartTime >= 4000) {
-                    interactingWithItem = false;
-                    if (currentItem != null) {
-                        currentItem = null;
-                    }
+                return; // The end of the interaction schedules the next step
+            }
+            if (interactionDue) {
+                // The clock has reached the step of a coarse move that rolled an interaction
+                interactionDue = false;
+                interactWithNearbyItem(items, time);
+                if (!interactingWithItem) {
+                    world.schedule(nextAction, time + MOVE_DELAY);
                 }
                 return;
             }
+            long delay = 0;
+            if (steps == 1) {
+                move(items);
+            } else {
+                delay = (moveCoarsely(items, steps, time) - 1) * (long) MOVE_DELAY;
+                if (interactionDue) {
+                    world.schedule(nextAction, time + delay);
+                    return;
+                }
+            }
+            world.schedule(nextAction, time + delay + (satisfaction > 0 ? MOVE_DELAY : WALK_DELAY));
+        } else {
+            long delay = 0;
+            do {
+                moveToEntrance(items);
+                delay += WALK_DELAY;
+            } while (delay < steps * WALK_DELAY && !hasReachedEntrance());
+            if (hasReachedEntrance()) {
+                world.customerLeft(this);
+            } else {
+                world.schedule(nextAction, time + delay);
+            }
+        }
+    }
 
-            if (currentTime - lastMoveTime >= MOVE_DELAY) {
-                if (!hasPaid) {
-                    moveToCashierTable(items);
-                } else {
-                    if (path.isEmpty()) {
-                        generateRandomPath(items);
+    /**
+     * Moves the customer one step around the shop after they have paid.
+     * @param items List of items in the shop
+     */
+    private void move(ArrayList<Item> items) {
+        if (path.isEmpty()) {
+            generateRandomPath(items);
+        } else {
+            followPath();
+            if (random.nextInt(100) < 100) {
+                interactWithItem(items, world);
+            }
+        }
+        satisfaction -= 1;
+    }
+
+    /**
+     * Moves the customer several steps around the shop at once, while they are out of view. Each step has the same
+     * chance of starting an interaction as a step of move(), but the chance is worked out from the item counts of the
+     * tiles around the customer instead of by checking every item, and the items are only looked at when an
+     * interaction does start. The customer stops at the step where that happens. On the first step the interaction
+     * starts at once; on a later one interactionDue is set instead, and act() starts it when the clock reaches that
+     * step, so every interaction starts at the world's current time.
+     * @param items List of items in the shop
+     * @param steps Most steps to take
+     * @param time The simulated time, which is the time of the first step
+     * @return Number of steps taken, at least 1
+     */
+    private int moveCoarsely(ArrayList<Item> items, int steps, long time) {
+        int taken = 0;
+        do {
+            if (path.isEmpty()) {
+                generateRandomPath(items);
+            } else {
+                followPath();
+                int nearby = world.getGrid().countItemsAround(world.getGrid().tileAt(x, y));
+                if (nearby > 0 && random.nextDouble() < 1 - Math.pow(1 - INTERACTION_CHANCE, nearby)) {
+                    if (taken == 0) {
+                        interactWithNearbyItem(items, time);
                     } else {
-                        followPath();
-                        if (random.nextInt(100) < 100) {
-                            interactWithItem(items, driver);
-                        }
+                        interactionDue = true;
                     }
                 }
-                lastMoveTime = currentTime;
-                satisfaction -= 1;
             }
+            satisfaction -= 1;
+            taken++;
+        } while (taken < steps && satisfaction > 0 && !interactingWithItem && !interactionDue);
+        return taken;
+    }
+
+    /**
+     * Starts an interaction with one of the items within one tile, picked as interactWithItem() would pick it given
+     * that it picks one: the items are tried in order with INTERACTION_CHANCE each until one is taken.
+     * @param items List of items in the shop
+     * @param time The simulated time the interaction starts at
+     */
+    private void interactWithNearbyItem(ArrayList<Item> items, long time) {
+        ArrayList<Item> nearby = new ArrayList<>();
+        for (Item item : items) {
+            if (Math.abs(x - item.getX()) <= tileSize && Math.abs(y - item.getY()) <= tileSize) {
+                nearby.add(item);
+            }
+        }
+        if (nearby.isEmpty()) return;
+        while (true) {
+            for (Item item : nearby) {
+                if (random.nextDouble() < INTERACTION_CHANCE) {
+                    startInteraction(item, time);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Ends an interaction with an item, letting a wandering customer move on. The time spent is added to the footfall
+     * heatmap.
+     * @param time The simulated time
+     */
+    private void endInteraction(long time) {
+        world.getHeatmap().recordDwell(world.getGrid().tileAt(x, y), time - interactionStartTime, time);
+        interactingWithItem = false;
+        currentItem = null;
+        if (hasPaid && satisfaction > 0) {
+            world.schedule(nextAction, time);
+        }
+    }
+
+    /**
+     * Cancels everything the customer has scheduled and gives their path search back to the room, once they have left
+     * the shop.
+     */
+    public void stop() {
+        world.cancel(nextAction);
+        world.cancel(interactionEnd);
+        if (planner != null) {
+            planner.release();
         }
     }
 
@@ -171,11 +381,11 @@ public class Customer {
         }
 
         // Validate the target position
-        if (targetY < tileSize || targetY >= screenHeight || targetX < 0 || targetX >= screenWidth || collidesWithItems(targetX, targetY, items)) {
+        if (targetY < tileSize || targetY >= screenHeight || targetX < 0 || targetX >= screenWidth || !world.getGrid().isWalkable(world.getGrid().tileAt(targetX, targetY))) {
             targetX = x;
             targetY = y;
         } else {
-            path = findPath(x, y, targetX, targetY, items);
+            findPath(x, y, targetX, targetY);
         }
     }
 
@@ -183,29 +393,19 @@ public class Customer {
      * Moves the customer to the cashier table.
      * @param items List of items in the shop
      */
-    public void moveToCashierTable(ArrayList<Item> items) {
-        if (isPaying) {
-            if (System.currentTimeMillis() - paymentStartTime >= 4000) {
-                // Payment complete
-                isPaying = false;
-                hasPaid = true;
-            }
-            return;
-        }
-
+    private void moveToCashierTable(ArrayList<Item> items) {
         int cashierX1 = (screenWidth / tileSize - 2) * tileSize;
         int cashierX2 = (screenWidth / tileSize - 1) * tileSize;
         int cashierY = tileSize;
 
         if (path.isEmpty()) {
-            path = findPath(x, y, cashierX1, cashierY, items);
+            findPath(x, y, cashierX1, cashierY);
         }
         followPath();
 
         // Check if customer is at the cashier
         if ((x == cashierX1 || x == cashierX2) && y == cashierY) {
             isPaying = true;
-            paymentStartTime = System.currentTimeMillis();
         }
     }
 
@@ -213,102 +413,80 @@ public class Customer {
      * Moves the customer to the entrance.
      * @param items List of items in the shop
      */
-    public void moveToEntrance(ArrayList<Item> items) {
+    private void moveToEntrance(ArrayList<Item> items) {
         int entranceX = 375 / tileSize * tileSize;
         int entranceY = tileSize;
 
         if (path.isEmpty()) {
-            path = findPath(x, y, entranceX, entranceY, items);
+            findPath(x, y, entranceX, entranceY);
         }
         followPath();
     }
 
     /**
-     * Finds the shortest path from start to end avoiding items.
+     * Finds the shortest path from start to end avoiding items and puts it in the customer's path, starting at the
+     * start. The customer's planner keeps its search while the customer is on the way, so planning to the same goal
+     * again, for example after the layout changed, only redoes the part that changed. Once the customer arrives, the
+     * search goes back to the room's pool; a customer who cannot reach the goal keeps it, so trying again is cheap.
      * @param startX Starting x position
      * @param startY Starting y position
      * @param endX Target x position
      * @param endY Target y position
-     * @param items List of items in the shop
-     * @return Queue of Points representing the path
      */
-    private Queue<Point> findPath(int startX, int startY, int endX, int endY, ArrayList<Item> items) {
-        PriorityQueue<Node> openList = new PriorityQueue<>(Comparator.comparingInt(node -> node.fCost));
-        HashSet<Point> closedList = new HashSet<>();
-        HashMap<Point, Point> cameFrom = new HashMap<>();
-
-        Node startNode = new Node(startX, startY, 0, heuristic(startX, startY, endX, endY));
-        openList.add(startNode);
-
-        while (!openList.isEmpty()) {
-            Node currentNode = openList.poll();
-            if (currentNode.x == endX && currentNode.y == endY) {
-                return reconstructPath(cameFrom, new Point(currentNode.x, currentNode.y));
-            }
-
-            closedList.add(new Point(currentNode.x, currentNode.y));
-
-            for (int[] direction : new int[][]{{1, 0}, {-1, 0}, {0, 1}, {0, -1}}) {
-                int neighborX = currentNode.x + direction[0] * tileSize;
-                int neighborY = currentNode.y + direction[1] * tileSize;
-
-                if (neighborX < 0 || neighborX >= screenWidth || neighborY < tileSize || neighborY >= screenHeight) continue;
-                if (collidesWithItems(neighborX, neighborY, items)) continue;
-                Point neighborPoint = new Point(neighborX, neighborY);
-
-                if (closedList.contains(neighborPoint)) continue;
-
-                int tentativeGCost = currentNode.gCost + 1;
-                boolean isInOpenList = openList.stream().anyMatch(node -> node.x == neighborX && node.y == neighborY);
-                if (!isInOpenList || tentativeGCost < currentNode.gCost) {
-                    cameFrom.put(neighborPoint, new Point(currentNode.x, currentNode.y));
-                    Node neighborNode = new Node(neighborX, neighborY, tentativeGCost, tentativeGCost + heuristic(neighborX, neighborY, endX, endY));
-                    if (!isInOpenList) {
-                        openList.add(neighborNode);
-                    }
-                }
-            }
+    private void findPath(int startX, int startY, int endX, int endY) {
+        long searchStart = System.nanoTime();
+        TileGrid grid = world.getGrid();
+        if (planner == null || planner.getGrid() != grid) {
+            planner = new PathPlanner(world.getPlannerPool());
         }
-        return new LinkedList<>();
+        int expanded = planner.plan(grid.tileAt(startX, startY), grid.tileAt(endX, endY));
+        GameMetrics.get().recordPathSearch(expanded, System.nanoTime() - searchStart);
+        planner.extractPath(path);
     }
 
     /**
-     * Reconstructs the path from start to end using the cameFrom map.
-     * @param cameFrom Map of points to reconstruct the path
-     * @param current Current point in the path
-     * @return Queue of Points representing the path
+     * Repairs the customer's path after an item was placed on or taken from a tile. The planner is always told about
+     * the change so its search stays valid; the path is only rebuilt if the customer is on the way somewhere and the
+     * change affected the shortest way there.
+     * @param tile The tile that changed
      */
-    private Queue<Point> reconstructPath(HashMap<Point, Point> cameFrom, Point current) {
-        LinkedList<Point> totalPath = new LinkedList<>();
-        totalPath.add(current);
-        while (cameFrom.containsKey(current)) {
-            current = cameFrom.get(current);
-            totalPath.addFirst(current);
+    void tileChanged(int tile) {
+        if (planner == null || planner.getGrid() != world.getGrid()) return;
+        planner.tileChanged(tile);
+        if (path.isEmpty()) return;
+        long searchStart = System.nanoTime();
+        int expanded = planner.repair(world.getGrid().tileAt(x, y));
+        if (expanded > 0) {
+            GameMetrics.get().recordPathSearch(expanded, System.nanoTime() - searchStart);
+            planner.extractPath(path);
+            if (!path.isEmpty()) {
+                path.next(); // The customer is already on the first tile
+            }
         }
-        return totalPath;
     }
 
     /**
-     * Heuristic function for A* pathfinding.
-     * @param x1 Starting x position
-     * @param y1 Starting y position
-     * @param x2 Target x position
-     * @param y2 Target y position
-     * @return Heuristic cost (Manhattan distance)
-     */
-    private int heuristic(int x1, int y1, int x2, int y2) {
-        return Math.abs(x1 - x2) + Math.abs(y1 - y2);
-    }
-
-    /**
-     * Follows the path generated by the A* algorithm.
+     * Follows the path generated by the planner, recording the step in the room's footfall heatmap.
      */
     private void followPath() {
         if (!path.isEmpty()) {
-            Point nextPoint = path.poll();
-            if (nextPoint != null) {
-                x = nextPoint.x;
-                y = nextPoint.y;
+            int tile = path.next();
+            if (glideStep != world.getStepStart()) {
+                // First move in this simulation step: glide from here
+                glideStep = world.getStepStart();
+                glideStart = world.getStepEnd();
+                glideMinimum = world.getStepEnd() - world.getStepStart();
+                glideTiles = 0;
+                previousX = x;
+                previousY = y;
+            }
+            glideTiles++;
+            lastStepTime = world.getTime();
+            x = world.getGrid().getX(tile);
+            y = world.getGrid().getY(tile);
+            world.getHeatmap().recordVisit(tile, lastStepTime);
+            if (path.isEmpty() && planner != null) {
+                planner.release(); // Arrived: the search goes back to the room's pool
             }
         }
     }
@@ -332,52 +510,46 @@ public class Customer {
     }
 
     /**
-     * Checks if the customer collides with any items.
-     * @param x X position to check
-     * @param y Y position to check
+     * Customer interacts with an item, increasing satisfaction and generating money and reputation for the world.
      * @param items List of items in the shop
-     * @return True if the customer collides with an item, false otherwise
+     * @param world The world controlling the game logic
      */
-    private boolean collidesWithItems(int x, int y, ArrayList<Item> items) {
+    public void interactWithItem(ArrayList<Item> items, GameWorld world) {
+        // Iterate over items to find one within one tile distance for potential interaction
         for (Item item : items) {
-            if (x < item.getX() + item.getWidth() &&
-                    x + tileSize > item.getX() &&
-                    y < item.getY() + item.getHeight() &&
-                    y + tileSize > item.getY()) {
-                return true;
+            if (Math.abs(x - item.getX()) <= tileSize && Math.abs(y - item.getY()) <= tileSize && random.nextInt(100) < 20) {
+                interactWithItem(item, world); // Call the single item interaction method if conditions are met
+                break;
             }
         }
-        return false;
     }
 
     /**
-     * Customer interacts with an item, increasing satisfaction and generating money and reputation for the driver.
-     * @param items List of items in the shop
-     * @param driver The main game driver controlling the game logic
+     * Customer interacts with a specific item, increasing satisfaction and generating money and reputation for the world.
+     * @param item The item to interact with
+     * @param world The world controlling the game logic
      */
-    public void interactWithItem(ArrayList<Item> items, Driver driver) {
-        // Iterate over items to find one within one tile distance for potential interaction
-        for (Item item : items) {
-            if (Math.abs(x - item.getX()) <= tileSize && Math.abs(y - item.getY()) <= tileSize && random.nextInt(100) < 20) {
-                interactWithItem(item, driver); // Call the single item interaction method if conditions are met
-                break;
-            }
-        }
+    public void interactWithItem(Item item, GameWorld world) {
+        startInteraction(item, world.getTime());
     }
 
     /**
-     * Customer interacts with a specific item, increasing satisfaction and generating money and reputation for the driver.
+     * Starts an interaction with an item at a simulated time, increasing satisfaction and generating money and
+     * reputation for the world the customer is in.
      * @param item The item to interact with
-     * @param driver The main game driver controlling the game logic
+     * @param time The simulated time the interaction starts at
      */
-    public void interactWithItem(Item item, Driver driver) {
+    private void startInteraction(Item item, long time) {
         satisfaction += 5; // Increase satisfaction
-        driver.setMoney(driver.getMoney() + item.getPrice() / 5); // Generate money for the driver
-        driver.setReputation(driver.getReputation() + 1); // Increase reputation
+        long income = EconomyLedger.toCents(item.getPrice() / 5);
+        world.getLedger().credit(income); // Generate money for the world
+        world.getLedger().addReputation(1); // Increase reputation
+        world.getEvents().publish(GameEvent.Type.INTERACTION_STARTED, time, this, item.getX(), item.getY(), income);
         item.setColor(Color.GREEN); // Change item color to indicate interaction
         interactingWithItem = true; // Set interaction flag to true
-        interactionStartTime = System.currentTimeMillis(); // Record the start time of the interaction
+        interactionStartTime = time; // Record the start time of the interaction
         currentItem = item; // Set the current interacting item
+        world.schedule(interactionEnd, interactionStartTime + INTERACTION_DURATION); // Schedule the end of the interaction
     }
 
     /**
@@ -392,28 +564,14 @@ public class Customer {
 
     // Getters and setters for the Customer class attributes.
     public int getX() { return x; }
-    public void setX(int x) { this.x = x; }
+    public void setX(int x) { this.x = x; this.previousX = x; }
     public int getY() { return y; }
-    public void setY(int y) { this.y = y; }
+    public void setY(int y) { this.y = y; this.previousY = y; }
     public int getSatisfaction() { return satisfaction; }
     public void setSatisfaction(int satisfaction) { this.satisfaction = satisfaction; }
     public boolean hasPaid() { return hasPaid; }
-    public boolean isPaused() { return isPaused; }
-    public void setPaused(boolean isPaused) { this.isPaused = isPaused; }
     public boolean isPaying() { return isPaying; }
-    public void setHasPaid(boolean hasPaid) { this.hasPaid = hasPaid; }
+    public int getRoomsVisited() { return roomsVisited; }
+    public Item getCurrentItem() { return currentItem; }
 
-    /**
-     * Node class for A* pathfinding algorithm.
-     */
-    private static class Node {
-        int x, y, gCost, fCost;
-
-        Node(int x, int y, int gCost, int fCost) {
-            this.x = x;
-            this.y = y;
-            this.gCost = gCost;
-            this.fCost = fCost;
-        }
-    }
 }
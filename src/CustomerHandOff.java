@@ -0,0 +1,13 @@
+/**
+ * The CustomerHandOff interface decides what happens to a customer who walks out of a room. A Venue uses it to send
+ * customers through doorways into other rooms.
+ */
+public interface CustomerHandOff {
+    /**
+     * Called on the thread that ticks the room, after the customer has been removed from it.
+     * @param from The room the customer left
+     * @param customer The customer
+     * @return True if the customer is on their way into another room, false if they leave
+     */
+    boolean handOff(GameWorld from, Customer customer);
+}
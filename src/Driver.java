@@ -16,32 +16,42 @@ It also handles the creation and management of game components like customers, i
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
-import javax.imageio.ImageIO;
+import java.util.function.DoubleSupplier;
 import javax.swing.Timer;
 
 @SuppressWarnings("serial")
-public class Driver extends JPanel implements ActionListener, MouseListener, MouseMotionListener {
+public class Driver extends JPanel implements ActionListener, MouseListener, MouseMotionListener, GameEventListener {
 
     private static final int SCREEN_WIDTH = 800;
     private static final int SCREEN_HEIGHT = 600;
     protected static final int TILE_SIZE = 50;
-
-    private ArrayList<Waste> wasteList;
-    private Timer wasteTimer;
-    private ArrayList<Item> items;
+    private static final int ENTRANCE_X = SCREEN_WIDTH / 2 - 25;
+    private static final int CASHIER_X = SCREEN_WIDTH - 2 * TILE_SIZE;
+    private static final int CASHIER_Y = TILE_SIZE;
+    private static final int HUD_TEXT_Y = 33;
+    private static final int REPUTATION_TEXT_X = 545;
+    private static final int MONEY_TEXT_X = 690;
+    private static final int ROOM_TEXT_X = 300;
+    private static final int TIME_SCALE_TEXT_X = 240;
+    private static final double ZOOM_STEP = 1.25;
+
+    // Everything is laid out and simulated in game coordinates of SCREEN_WIDTH x SCREEN_HEIGHT; the panel is drawn at
+    // uiScale times that size, on top of any HiDPI scaling of the screen
+    private double uiScale = 1;
+
+    private Venue venue;
+    private GameWorld world; // The room on screen
+    private SessionRecorder recorder;
+    private TelemetryWriter telemetry;
     private HashSet<Item> uniqueItems;
-    private ArrayList<Customer> customers;
-    public double money = 100.0;
-    private double reputation = 100.0;
     private int revolution = 0;
-    private Item selectedItem;private Random random = new Random();
+    private Item selectedItem;
     private Shop shop;
     private Point dragOffset;
-    private BufferedImage backgroundImage;
+    private Sprite backgroundImage;
     private Font sherryFont;
     private static final int STATE_MENU = 0;
     private static final int STATE_GAME = 1;
@@ -49,13 +59,37 @@ public class Driver extends JPanel implements ActionListener, MouseListener, Mou
     private static final int STATE_ABOUT = 3;
 
     private int gameState = STATE_MENU;
-    private BufferedImage menuImage;
-    private BufferedImage aboutImage;
-    private BufferedImage instructionImage;
-    private BufferedImage cashierTable;
-    private BufferedImage entrance;
+    private Sprite menuImage;
+    private Sprite aboutImage;
+    private Sprite instructionImage;
+    private Sprite cashierTable;
+    private Sprite entrance;
 
     private Timer customerTimer;
+    private PerformanceOverlay overlay = new PerformanceOverlay();
+    private boolean showHeatmap;
+
+    // Time scale: simulation ticks per frame, where 0 means as many as fit in MAX_SPEED_BUDGET_NANOS
+    private static final int[] TIME_SCALES = {1, 2, 8, 32, 0};
+    private static final long MAX_SPEED_BUDGET_NANOS = 12_000_000L;
+    private static final int FAST_FRAME_SKIP = 4;
+    private static final int REDUCED_SIM_RATE = 2; // How many times fewer steps the governor's SIM_RATE tier simulates
+    private int timeScaleIndex = 0;
+    private int framesSkipped;
+
+    // The simulation advances in steps of simStepTicks ticks, at most once a frame; frames in between draw customers
+    // part of the way through their steps, at the simulated time the frame stands for
+    private int simStepTicks = 1;
+    private int pendingTicks;
+
+    // Drops detail when frames take longer than the frame budget, see QualityGovernor
+    private QualityGovernor governor;
+    private long lastPaintNanos;
+
+    // HUD text, rebuilt at most once per paint after an event changed money or reputation
+    private boolean hudDirty = true;
+    private String reputationText;
+    private String moneyText;
 
     // Button "areas"
     private Rectangle startButtonArea = new Rectangle(240, 189, 320, 47);
@@ -68,44 +102,160 @@ public class Driver extends JPanel implements ActionListener, MouseListener, Mou
     // In-game
     private Rectangle shopButtonArea = new Rectangle(123, 5, 101, 38);
 
-    private static final int MAX_WASTE_COUNT = 10;
-    private static final int MAX_CUSTOMER_COUNT = 10;
-
     /**
      * Constructor for the Driver class. Initializes game components.
      */
     public Driver() {
-        setPreferredSize(new Dimension(SCREEN_WIDTH, SCREEN_HEIGHT));
+        // -Dcatfamirry.uiScale zooms the whole game, and -Dcatfamirry.tileSize sets the zoom by the size of a tile in
+        // pixels; after that the zoom follows the window, and Ctrl+Plus, Ctrl+Minus and Ctrl+0 change it
+        uiScale = 1;
+        String scaleProperty = System.getProperty("catfamirry.uiScale");
+        String tileSizeProperty = System.getProperty("catfamirry.tileSize");
+        try {
+            if (tileSizeProperty != null) {
+                uiScale = Integer.parseInt(tileSizeProperty.trim()) / (double) TILE_SIZE;
+            } else if (scaleProperty != null) {
+                uiScale = Double.parseDouble(scaleProperty.trim());
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Ignoring catfamirry." + (tileSizeProperty != null ? "tileSize=" + tileSizeProperty
+                    : "uiScale=" + scaleProperty) + ", it is not a number");
+        }
+        if (!(uiScale > 0) || Double.isInfinite(uiScale)) {
+            System.err.println("Ignoring zoom " + uiScale + ", it must be above 0");
+            uiScale = 1;
+        }
+        setPreferredSize(new Dimension((int) Math.round(SCREEN_WIDTH * uiScale), (int) Math.round(SCREEN_HEIGHT * uiScale)));
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                uiScale = Math.min(getWidth() / (double) SCREEN_WIDTH, getHeight() / (double) SCREEN_HEIGHT);
+                repaint();
+            }
+        });
+        bindZoomKey(KeyEvent.VK_EQUALS, "zoomIn", () -> uiScale * ZOOM_STEP);
+        bindZoomKey(KeyEvent.VK_ADD, "zoomInKeypad", () -> uiScale * ZOOM_STEP);
+        bindZoomKey(KeyEvent.VK_MINUS, "zoomOut", () -> uiScale / ZOOM_STEP);
+        bindZoomKey(KeyEvent.VK_SUBTRACT, "zoomOutKeypad", () -> uiScale / ZOOM_STEP);
+        bindZoomKey(KeyEvent.VK_0, "zoomReset", () -> 1.0);
         setBackground(Color.WHITE);
         setLayout(null);
         addMouseListener(this);
         addMouseMotionListener(this);
 
-        wasteList = new ArrayList<>();
-        items = new ArrayList<>();
-        customers = new ArrayList<>();
+        // F3 shows and hides the performance overlay
+        getInputMap(WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(KeyEvent.VK_F3, 0), "toggleOverlay");
+        getActionMap().put("toggleOverlay", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                overlay.toggle();
+                repaint();
+            }
+        });
+
+        // F4 shows and hides the footfall heatmap
+        getInputMap(WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(KeyEvent.VK_F4, 0), "toggleHeatmap");
+        getActionMap().put("toggleHeatmap", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                showHeatmap = !showHeatmap;
+                repaint();
+            }
+        });
+
+        // Keys 1 to 5 choose the time scale: 1x, 2x, 8x, 32x or as fast as possible
+        for (int i = 0; i < TIME_SCALES.length; i++) {
+            int index = i;
+            getInputMap(WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(KeyEvent.VK_1 + i, 0), "timeScale" + i);
+            getActionMap().put("timeScale" + i, new AbstractAction() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    timeScaleIndex = index;
+                    repaint();
+                }
+            });
+        }
+
         uniqueItems = new HashSet<>();
 
-        try {
-            sherryFont = Font.createFont(Font.TRUETYPE_FONT, new File("Neucha-Regular.ttf")).deriveFont(24f);
-            GraphicsEnvironment ge = GraphicsEnvironment.getLocalGraphicsEnvironment();
-            ge.registerFont(sherryFont);
-        } catch (IOException | FontFormatException e) {
-            e.printStackTrace();
+        // Page Up and Page Down switch between the rooms of the venue
+        getInputMap(WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(KeyEvent.VK_PAGE_UP, 0), "previousRoom");
+        getActionMap().put("previousRoom", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                showRoom(venue.getRooms().indexOf(world) - 1);
+            }
+        });
+        getInputMap(WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(KeyEvent.VK_PAGE_DOWN, 0), "nextRoom");
+        getActionMap().put("nextRoom", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                showRoom(venue.getRooms().indexOf(world) + 1);
+            }
+        });
+
+        // The seed can be fixed with -Dcatfamirry.seed, the number of rooms set with -Dcatfamirry.rooms, and a
+        // single-room session recorded with -Dcatfamirry.record=<file>. -Dcatfamirry.capacity sets how many customers
+        // fit in a room, and -Dcatfamirry.arrivalRate switches to Poisson arrivals at that many per minute per 1000
+        // reputation. -Dcatfamirry.simRate sets how many times a second the simulation steps (60 by default), and
+        // -Dcatfamirry.telemetry=<directory> streams telemetry to rolling files in that directory.
+        // -Dcatfamirry.frameBudget=<ms> sets the frame time the quality governor holds (12 by default, 0 turns it off)
+        venue = new Venue(Long.getLong("catfamirry.seed", System.nanoTime()), Math.max(1, Integer.getInteger("catfamirry.rooms", 1)));
+        showRoom(0);
+        for (GameWorld room : venue.getRooms()) {
+            room.getEvents().subscribe(this);
         }
-
-        try {
-            menuImage = ImageIO.read(new File("menuImage.png"));
-            backgroundImage = ImageIO.read(new File("backgroundImage.png"));
-            aboutImage = ImageIO.read(new File("aboutMenu.png"));
-            instructionImage = ImageIO.read(new File("instructionMenu.png"));
-            cashierTable = ImageIO.read(new File("Cashier Table.png"));
-            entrance = ImageIO.read(new File("entrance.png"));
-        } catch (IOException e) {
-            e.printStackTrace();
+        String recordFile = System.getProperty("catfamirry.record");
+        if (recordFile != null && venue.getRoomCount() == 1) {
+            try {
+                recorder = new SessionRecorder(new File(recordFile), world.getSeed());
+                world.setRecorder(recorder);
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> recorder.close(world.getTickCount())));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        String telemetryDirectory = System.getProperty("catfamirry.telemetry");
+        if (telemetryDirectory != null) {
+            try {
+                telemetry = new TelemetryWriter(new File(telemetryDirectory), 64L << 20, 8);
+                for (int i = 0; i < venue.getRoomCount(); i++) {
+                    telemetry.attach(venue.getRoom(i), i);
+                }
+                Runtime.getRuntime().addShutdownHook(new Thread(telemetry::close));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        int simRate = Math.max(1, Integer.getInteger("catfamirry.simRate", 1000 / GameWorld.TICK_MILLIS));
+        simStepTicks = Math.max(1, Math.round(1000f / simRate / GameWorld.TICK_MILLIS));
+        if (recorder != null) {
+            simStepTicks = 1; // Replays run single ticks, so inputs must land on the same ticks
+        }
+        governor = new QualityGovernor(Integer.getInteger("catfamirry.frameBudget", 12) * 1_000_000L);
+        overlay.setGovernor(governor);
+        GameMetrics.get().setQualityGovernor(governor);
+        Integer capacity = Integer.getInteger("catfamirry.capacity");
+        String arrivalRate = System.getProperty("catfamirry.arrivalRate");
+        for (GameWorld room : venue.getRooms()) {
+            if (capacity != null) {
+                room.setCustomerCapacity(capacity);
+            }
+            if (arrivalRate != null) {
+                room.setArrivalRate(Double.parseDouble(arrivalRate));
+            }
         }
 
-        shop = new Shop(sherryFont, money, items, this);
+        sherryFont = AssetCache.getFont(AssetLoader.FONT_FILE, 24f);
+
+        // Screens are converted once for each zoom to the pixel size they are drawn at, so painting them does not scale
+        // every frame
+        menuImage = AssetCache.getSprite("menuImage.png", SCREEN_WIDTH, SCREEN_HEIGHT);
+        backgroundImage = AssetCache.getSprite("backgroundImage.png", SCREEN_WIDTH, SCREEN_HEIGHT);
+        aboutImage = AssetCache.getSprite("aboutMenu.png", SCREEN_WIDTH, SCREEN_HEIGHT);
+        instructionImage = AssetCache.getSprite("instructionMenu.png", SCREEN_WIDTH, SCREEN_HEIGHT);
+        cashierTable = AssetCache.getSprite("Cashier Table.png", 2 * TILE_SIZE, TILE_SIZE);
+        entrance = AssetCache.getSprite("entrance.png", 25, TILE_SIZE);
 
         if (gameState == STATE_MENU) {
             setupMenuComponents();
@@ -121,18 +271,25 @@ public class Driver extends JPanel implements ActionListener, MouseListener, Mou
         repaint();
     }
 
+    /**
+     * Shows the game screen for a world without starting the timer, so the screen can be painted into an image by the
+     * RenderBenchmark.
+     * @param world The world to show
+     */
+    void showWorld(GameWorld world) {
+        this.world = world;
+        gameState = STATE_GAME;
+        hudDirty = true;
+    }
+
     /**
      * Sets up the game components.
      */
     private void setupGameComponents() {
         removeAll();
 
-        // Start waste timer
-        wasteTimer = new Timer(33000, e -> spawnWaste());
-        wasteTimer.start();
-
-        // Start customer timer
-        customerTimer = new Timer(16, e -> manageCustomers());
+        // Start customer timer, which also spawns waste as simulated time passes
+        customerTimer = new Timer(GameWorld.TICK_MILLIS, e -> manageCustomers());
         customerTimer.start();
 
         revalidate();
@@ -140,60 +297,104 @@ public class Driver extends JPanel implements ActionListener, MouseListener, Mou
     }
 
     /**
-     * Paints the component based on the current game state.
-     * @param g Graphics object used to draw the component.
+     * Paints the component based on the current game state. Everything is drawn in game coordinates, scaled by the
+     * zoom; sprites are drawn at the resulting pixel size, so they are not scaled while painting.
+     * @param screen Graphics object used to draw the component.
      */
     @Override
-    protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
+    protected void paintComponent(Graphics screen) {
+        long paintStart = System.nanoTime();
+        super.paintComponent(screen);
+        Graphics2D g = (Graphics2D) screen.create();
+        g.scale(uiScale, uiScale);
 
         if (gameState == STATE_MENU) {
             if (menuImage != null) {
-                g.drawImage(menuImage, 0, 0, SCREEN_WIDTH, SCREEN_HEIGHT, this);
+                menuImage.draw(g, 0, 0);
             }
         } else if (gameState == STATE_GAME) {
             if (backgroundImage != null) {
-                g.drawImage(backgroundImage, 0, 0, SCREEN_WIDTH, SCREEN_HEIGHT, this);
+                backgroundImage.draw(g, 0, 0);
             }
 
-            drawGrid(g);
+            if (!governor.isDropped(QualityGovernor.Tier.GRID)) {
+                drawGrid(g);
+            }
+            if (showHeatmap) {
+                world.getHeatmap().render(g, world.getTime());
+            }
 
-            g.drawImage(entrance, 375, 0, 25, 50, this); // Entrance
-            g.drawImage(cashierTable, 700, 50, 100, 50, this); // Cashier
+            if (entrance != null) {
+                entrance.draw(g, ENTRANCE_X, 0);
+            }
+            if (cashierTable != null) {
+                cashierTable.draw(g, CASHIER_X, CASHIER_Y);
+            }
 
             // Render all waste items
-            for (Waste waste : wasteList) {
+            long sliceStart = System.nanoTime();
+            for (Waste waste : world.getWasteList()) {
                 waste.render(g);
             }
+            long sliceEnd = System.nanoTime();
+            overlay.recordSlice(PerformanceOverlay.SLICE_WASTE, sliceEnd - sliceStart);
 
             // Render all items
-            for (Item item : items) {
+            sliceStart = sliceEnd;
+            for (Item item : world.getItems()) {
                 item.render(g);
             }
+            sliceEnd = System.nanoTime();
+            overlay.recordSlice(PerformanceOverlay.SLICE_ITEMS, sliceEnd - sliceStart);
 
             // Render all customers
-            for (Customer customer : customers) {
-                customer.render(g);
+            sliceStart = sliceEnd;
+            // Without interpolation, customers are drawn past the end of their steps, on their tiles
+            double renderTime = governor.isDropped(QualityGovernor.Tier.INTERPOLATION) ? Double.POSITIVE_INFINITY
+                    : world.getTime() + (double) pendingTicks * GameWorld.TICK_MILLIS;
+            boolean showLabels = !governor.isDropped(QualityGovernor.Tier.LABELS);
+            boolean showOverlays = !governor.isDropped(QualityGovernor.Tier.OVERLAYS);
+            for (Customer customer : world.getCustomers()) {
+                customer.render(g, renderTime, showLabels, showOverlays);
             }
+            overlay.recordSlice(PerformanceOverlay.SLICE_CUSTOMER_RENDER, System.nanoTime() - sliceStart);
 
             // Display reputation and money
+            if (hudDirty) {
+                reputationText = "" + world.getReputation();
+                moneyText = EconomyLedger.formatMoney(world.getLedger().getBalanceCents());
+                hudDirty = false;
+            }
             g.setFont(sherryFont);
             g.setColor(Color.WHITE);
-            g.drawString("" + reputation, 545, 33);
-            g.drawString("" + money, 690, 33);
+            g.drawString(reputationText, REPUTATION_TEXT_X, HUD_TEXT_Y);
+            g.drawString(moneyText, MONEY_TEXT_X, HUD_TEXT_Y);
+            if (venue.getRoomCount() > 1) {
+                g.drawString("Room " + (venue.getRooms().indexOf(world) + 1) + "/" + venue.getRoomCount(), ROOM_TEXT_X, HUD_TEXT_Y);
+            }
+            if (TIME_SCALES[timeScaleIndex] != 1) {
+                g.drawString(TIME_SCALES[timeScaleIndex] == 0 ? "max" : "x" + TIME_SCALES[timeScaleIndex], TIME_SCALE_TEXT_X, HUD_TEXT_Y);
+            }
 
             if (selectedItem != null) {
                 selectedItem.render(g);
             }
+
+            overlay.render(g, 10, 60);
         } else if (gameState == STATE_ABOUT) {
             if (aboutImage != null) {
-                g.drawImage(aboutImage, 0, 0, SCREEN_WIDTH, SCREEN_HEIGHT, this);
+                aboutImage.draw(g, 0, 0);
             }
         } else if (gameState == STATE_INSTRUCTIONS) {
             if (instructionImage != null) {
-                g.drawImage(instructionImage, 0, 0, SCREEN_WIDTH, SCREEN_HEIGHT, this);
+                instructionImage.draw(g, 0, 0);
             }
         }
+        g.dispose();
+        long paintNanos = System.nanoTime() - paintStart;
+        GameMetrics.get().recordPaint(paintNanos);
+        overlay.recordPaint(paintNanos);
+        lastPaintNanos = paintNanos;
     }
 
     /**
@@ -214,41 +415,85 @@ public class Driver extends JPanel implements ActionListener, MouseListener, Mou
     }
 
     /**
-     * Manages the movement and actions of customers.
+     * Manages the movement and actions of customers by advancing the world by as many ticks as the time scale asks for.
+     * Every deadline lives in simulated time, so customers, payments and waste keep their timing at any speed; only the
+     * last of the ticks is drawn, and at the highest speeds whole frames are skipped to leave the time to the simulation.
+     * Ticks are run in whole simulation steps, each of which advances the rooms and dispatches their events once, so a
+     * longer step costs less; when a step is longer than a frame, the frame's ticks are only counted, and the frame is
+     * drawn that much later than the world's time so customers keep moving smoothly between steps.
+     * At normal speed, each frame's update time and the time of the last paint are given to the quality governor. As its
+     * last resort the governor lowers the simulation rate: simulation steps are made REDUCED_SIM_RATE times longer, and
+     * customers on screen take that many tiles per action, as customers out of view do. Both are left alone while a
+     * session is being recorded, so that it replays exactly.
      */
     private void manageCustomers() {
-        // Check if more customers can be added
-        if (customers.size() < MAX_CUSTOMER_COUNT && random.nextInt(300) < reputation / 3000) {
-            int imageIndex = random.nextInt(15) + 1;
-            int initialSatisfaction = random.nextInt(50) + 50;
-            customers.add(new Customer(375 / TILE_SIZE * TILE_SIZE, TILE_SIZE, initialSatisfaction, imageIndex, TILE_SIZE, SCREEN_WIDTH, SCREEN_HEIGHT));
+        int scale = TIME_SCALES[timeScaleIndex];
+        boolean reduced = governor.isDropped(QualityGovernor.Tier.SIM_RATE) && recorder == null;
+        int stepTicks = reduced ? simStepTicks * REDUCED_SIM_RATE : simStepTicks;
+        world.setMinStepsPerUpdate(reduced ? REDUCED_SIM_RATE : 1);
+        long frameStart = System.nanoTime();
+        int ticks;
+        long updateNanos = 0;
+        if (scale == 0) {
+            pendingTicks = 0;
+            ticks = Integer.MAX_VALUE;
+        } else {
+            pendingTicks += scale;
+            ticks = pendingTicks - pendingTicks % stepTicks;
+            pendingTicks -= ticks;
         }
-
-        // Iterate through the customer list to update their state
-        Iterator<Customer> iterator = customers.iterator();
-        while (iterator.hasNext()) {
-            Customer customer = iterator.next();
-            if (!customer.hasPaid()) {
-                customer.moveToCashierTable(items);
-                int cashierX1 = (SCREEN_WIDTH / TILE_SIZE - 2) * TILE_SIZE;
-                int cashierX2 = (SCREEN_WIDTH / TILE_SIZE - 1) * TILE_SIZE;
-                int cashierY = TILE_SIZE;
-
-                if ((customer.getX() == cashierX1 || customer.getX() == cashierX2) && customer.getY() == cashierY && !customer.isPaying()) {
-                    customer.setHasPaid(true);
-                    money += 5;
-                }
-            } else if (customer.getSatisfaction() > 0) {
-                customer.move(items, this);
-            } else {
-                customer.moveToEntrance(items);
-                if (customer.hasReachedEntrance()) {
-                    iterator.remove();
+        for (int tick = 0; tick < ticks && (scale != 0 || System.nanoTime() - frameStart < MAX_SPEED_BUDGET_NANOS); tick += stepTicks) {
+            long tickStart = System.nanoTime();
+            venue.tick(stepTicks);
+            long tickNanos = System.nanoTime() - tickStart;
+            updateNanos += tickNanos;
+            GameMetrics.get().recordTick(tickNanos);
+            overlay.recordUpdate(tickNanos);
+            if (telemetry != null) {
+                for (int i = 0; i < venue.getRoomCount(); i++) {
+                    telemetry.sampleTick(venue.getRoom(i), i, tickNanos);
                 }
             }
         }
+        GameMetrics.get().sampleWorld(world);
+        if (scale == 1) {
+            governor.recordFrame(updateNanos, lastPaintNanos);
+        } else {
+            governor.skipWindow(); // Faster speeds spend the frame on the simulation on purpose
+        }
 
-        repaint();
+        if ((scale != 0 && scale < 32) || ++framesSkipped >= FAST_FRAME_SKIP) {
+            framesSkipped = 0;
+            repaint();
+        }
+    }
+
+    /**
+     * Marks the HUD as out of date when an event changed money or reputation.
+     * @param event The event
+     */
+    @Override
+    public void onEvent(GameEvent event) {
+        switch (event.getType()) {
+            case CUSTOMER_PAID:
+            case INTERACTION_STARTED:
+            case WASTE_CLEANED:
+                hudDirty = true;
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Shows the result of an input. While the game runs, the events of the input are dispatched and drawn with the next
+     * tick, so a tick never causes more than one repaint; while it is paused they are dispatched and drawn right away.
+     */
+    private void refreshAfterInput() {
+        if (customerTimer == null || !customerTimer.isRunning()) {
+            world.flushEvents();
+            repaint();
+        }
     }
 
     /**
@@ -258,10 +503,8 @@ public class Driver extends JPanel implements ActionListener, MouseListener, Mou
     @Override
     public void actionPerformed(ActionEvent e) {
         String command = e.getActionCommand();
-        if (command.equals("spawnWaste")) {
-            spawnWaste();
-        } else if (command.equals("Shop")) {
-            shop.showShop();
+        if (command.equals("Shop")) {
+            getShop().showShop();
             pauseGame();
         } else if (command.equals("Start")) {
             gameState = STATE_GAME;
@@ -283,8 +526,8 @@ public class Driver extends JPanel implements ActionListener, MouseListener, Mou
      */
     @Override
     public void mouseClicked(MouseEvent e) {
-        int mouseX = e.getX();
-        int mouseY = e.getY();
+        int mouseX = toGameX(e);
+        int mouseY = toGameY(e);
 
         if (gameState == STATE_MENU) {
             if (startButtonArea.contains(mouseX, mouseY)) {
@@ -302,7 +545,7 @@ public class Driver extends JPanel implements ActionListener, MouseListener, Mou
                 gameState = STATE_MENU;
                 setupMenuComponents();
             } else if (shopButtonArea.contains(mouseX, mouseY)) {
-                shop.showShop();
+                getShop().showShop();
                 pauseGame();
             }
 
@@ -310,38 +553,14 @@ public class Driver extends JPanel implements ActionListener, MouseListener, Mou
             if (selectedItem != null && mouseY > TILE_SIZE) {
                 int snappedX = (mouseX / TILE_SIZE) * TILE_SIZE;
                 int snappedY = (mouseY / TILE_SIZE) * TILE_SIZE;
-                items.add(new Item(selectedItem.getType(), selectedItem.getColor(), snappedX, snappedY, selectedItem.getPrice()));
+                world.placeItem(selectedItem.getType(), selectedItem.getColor(), snappedX, snappedY, selectedItem.getPrice());
                 selectedItem = null;
                 resumeGame();
-                repaint();
+                refreshAfterInput();
             } else {
-                boolean interacted = false;
-                // Check for customer interactions with items
-                for (Customer customer : customers) {
-                    if (customer.contains(mouseX, mouseY)) {
-                        for (Item item : items) {
-                            if (Math.abs(customer.getX() - item.getX()) <= TILE_SIZE && Math.abs(customer.getY() - item.getY()) <= TILE_SIZE) {
-                                customer.interactWithItem(item, this);
-                                interacted = true;
-                                break;
-                            }
-                        }
-                    }
-                    if (interacted) break;
-                }
-
-                // Check for waste interactions
-                if (!interacted) {
-                    for (int i = 0; i < wasteList.size(); i++) {
-                        Waste waste = wasteList.get(i);
-                        if (waste.contains(mouseX, mouseY)) {
-                            wasteList.remove(i);
-                            reputation += 5.0;
-                            break;
-                        }
-                    }
-                }
-                repaint();
+                // Check for customer interactions with items, then for waste interactions
+                world.clickAt(mouseX, mouseY);
+                refreshAfterInput();
             }
         } else if (gameState == STATE_ABOUT || gameState == STATE_INSTRUCTIONS) {
             if (menuButtonArea.contains(mouseX, mouseY)) {
@@ -358,14 +577,11 @@ public class Driver extends JPanel implements ActionListener, MouseListener, Mou
     @Override
     public void mousePressed(MouseEvent e) {
         if (gameState == STATE_GAME) {
-            for (Item item : items) {
-                if (item.contains(e.getX(), e.getY())) {
-                    dragOffset = new Point(e.getX() - item.getX(), e.getY() - item.getY());
-                    selectedItem = item;
-                    items.remove(item);
-                    repaint();
-                    break;
-                }
+            Item item = world.pickUpItem(toGameX(e), toGameY(e));
+            if (item != null) {
+                dragOffset = new Point(toGameX(e) - item.getX(), toGameY(e) - item.getY());
+                selectedItem = item;
+                refreshAfterInput();
             }
         }
     }
@@ -380,8 +596,8 @@ public class Driver extends JPanel implements ActionListener, MouseListener, Mou
     public void mouseMoved(MouseEvent e) {
         if (gameState == STATE_GAME) {
             if (selectedItem != null) {
-                int mouseX = e.getX();
-                int mouseY = e.getY();
+                int mouseX = toGameX(e);
+                int mouseY = toGameY(e);
                 int snappedX = (mouseX / TILE_SIZE) * TILE_SIZE;
                 int snappedY = (mouseY / TILE_SIZE) * TILE_SIZE;
                 selectedItem.setX(snappedX);
@@ -406,103 +622,160 @@ public class Driver extends JPanel implements ActionListener, MouseListener, Mou
     }
 
     /**
-     * Spawns a waste item in the game.
+     * Converts the x position of a mouse event from panel pixels to game coordinates.
+     * @param e The mouse event
+     * @return The x position in game coordinates
      */
-    private void spawnWaste() {
-        if (wasteList.size() < MAX_WASTE_COUNT) {
-            int x = random.nextInt(SCREEN_WIDTH - 50);
-            int y = random.nextInt(SCREEN_HEIGHT - TILE_SIZE - 50) + TILE_SIZE;
-            wasteList.add(new Waste(x, y));
-            repaint();
-        }
+    private int toGameX(MouseEvent e) {
+        return (int) (e.getX() / uiScale);
+    }
+
+    /**
+     * Converts the y position of a mouse event from panel pixels to game coordinates.
+     * @param e The mouse event
+     * @return The y position in game coordinates
+     */
+    private int toGameY(MouseEvent e) {
+        return (int) (e.getY() / uiScale);
+    }
+
+    /**
+     * Binds Ctrl and a key to resizing the window to a new zoom. The zoom itself follows from the new size.
+     * @param keyCode The key
+     * @param name Name of the action
+     * @param zoom Gives the new zoom
+     */
+    private void bindZoomKey(int keyCode, String name, DoubleSupplier zoom) {
+        getInputMap(WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(keyCode, InputEvent.CTRL_DOWN_MASK), name);
+        getActionMap().put(name, new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                double scale = Math.max(0.25, Math.min(8, zoom.getAsDouble()));
+                setPreferredSize(new Dimension((int) Math.round(SCREEN_WIDTH * scale), (int) Math.round(SCREEN_HEIGHT * scale)));
+                Window window = SwingUtilities.getWindowAncestor(Driver.this);
+                if (window != null) {
+                    window.pack();
+                }
+            }
+        });
     }
 
     public static void main(String[] args) {
+        GameMetrics.register();
+
+        // Decode every asset in parallel behind a splash, so the game itself finds them all in the AssetCache
+        LoadingSplash splash = new LoadingSplash();
+        splash.setVisible(true);
+        try {
+            new AssetLoader().loadAll(splash);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+        splash.dispose();
+
         JFrame frame = new JFrame("Cat Famirry");
         Driver gamePanel = new Driver();
         frame.add(gamePanel);
         frame.pack();
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         frame.setLocationRelativeTo(null);
-        frame.setResizable(false);
+        frame.setResizable(true);
         frame.setVisible(true);
+        gamePanel.startShopPreload();
     }
 
     /**
-     * Sets the selected item.
-     * @param item The item to set as selected.
+     * Gets the shop window, building it on first use. Building it is slow (a window, the catalog and an icon for every
+     * item), so it is not done until the shop is needed or the preload gets to it.
+     * @return The shop
      */
-    public void setSelectedItem(Item item) {
-        this.selectedItem = item;
+    private Shop getShop() {
+        if (shop == null) {
+            shop = new Shop(sherryFont, this);
+        }
+        return shop;
     }
 
     /**
-     * Gets the current amount of money.
-     * @return The current amount of money.
+     * Starts warming up the shop in the background once the menu is showing: a low-priority thread decodes and scales
+     * the catalog icons, then the shop window itself is built on the event thread.
      */
-    public double getMoney() {
-        return money;
+    private void startShopPreload() {
+        Thread preload = new Thread(() -> {
+            for (Item item : ShopCatalog.createItems()) {
+                AssetCache.getScaledImage(item.getType() + ".png", 50, 50);
+            }
+            SwingUtilities.invokeLater(this::getShop);
+        }, "shop-preload");
+        preload.setPriority(Thread.MIN_PRIORITY);
+        preload.setDaemon(true);
+        preload.start();
     }
 
     /**
-     * Sets the amount of money.
-     * @param money The amount of money to set.
+     * Sets the selected item.
+     * @param item The item to set as selected.
+     */
+    public void setSelectedItem(Item item) {
+        this.selectedItem = item;
+    }
+
+    /**
+     * Shows another room of the venue. An item being dragged is carried along and can be placed in the new room.
+     * @param index Index of the room, which wraps around
      */
-    public void setMoney(double money) {
-        this.money = money;
+    private void showRoom(int index) {
+        int count = venue.getRoomCount();
+        world = venue.getRoom((index % count + count) % count);
+        // The shown room is on screen as a whole; customers in the other rooms are simulated at a lower level of detail
+        for (GameWorld room : venue.getRooms()) {
+            room.setViewport(room == world ? new Rectangle(0, 0, room.getWidth(), room.getHeight()) : new Rectangle());
+        }
         repaint();
     }
 
     /**
-     * Gets the current reputation.
-     * @return The current reputation.
+     * Gets the ledger holding the current money and reputation.
+     * @return The ledger
      */
-    public double getReputation() {
-        return reputation;
+    public EconomyLedger getLedger() {
+        return world.getLedger();
     }
 
     /**
-     * Sets the reputation.
-     * @param reputation The reputation to set.
+     * Buys an item from the shop with the world's money.
+     * @param item The catalog item to buy
+     * @return True if the item was bought, false if there was not enough money
      */
-    public void setReputation(double reputation) {
-        this.reputation = reputation;
-        repaint();
+    public boolean purchaseItem(Item item) {
+        boolean bought = world.purchase(item.getType(), item.getPrice());
+        hudDirty = true;
+        refreshAfterInput();
+        return bought;
     }
 
     /**
      * Pauses the game by stopping all timers and pausing all customers.
      */
     private void pauseGame() {
-        wasteTimer.stop();
         customerTimer.stop();
-        for (Customer customer : customers) {
-            customer.setPaused(true);
-        }
+        venue.setPaused(true);
     }
 
     /**
      * Resumes the game by starting all timers and resuming all customers.
      */
     public void resumeGame() {
-        if (wasteTimer != null) {
-            wasteTimer.start();
-        }
         if (customerTimer != null) {
             customerTimer.start();
         }
-        for (Customer customer : customers) {
-            customer.setPaused(false);
-        }
+        venue.setPaused(false);
     }
 
     /**
      * Stops all timers in the game.
      */
     private void stopAllTimers() {
-        if (wasteTimer != null) {
-            wasteTimer.stop();
-        }
         if (customerTimer != null) {
             customerTimer.stop();
         }
@@ -0,0 +1,107 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The EconomyLedger class keeps the shop's money and reputation. Money is stored as a whole number of cents and
+ * reputation as a fixed-point number with REPUTATION_SCALE units per point, so repeated small payments never drift the
+ * way doubles do.
+ * Income is added to striped LongAdders, so many customers can be paid at once from different threads without locks and
+ * without losing updates. Spending goes through a compare-and-set on the total spent, and only succeeds if the balance
+ * covers it; income that is still being added while a purchase runs can only make the balance look smaller, never larger,
+ * so a purchase can never overdraw the shop.
+ */
+public class EconomyLedger {
+    public static final int CENTS_PER_DOLLAR = 100;
+    public static final int REPUTATION_SCALE = 100;
+
+    private final LongAdder income = new LongAdder();
+    private final AtomicLong spent = new AtomicLong();
+    private final LongAdder reputation = new LongAdder();
+
+    /**
+     * Constructor.
+     * Initializes the ledger with a starting balance and reputation.
+     * @param startingCents Starting money in cents
+     * @param startingReputation Starting reputation in whole points
+     */
+    public EconomyLedger(long startingCents, long startingReputation) {
+        income.add(startingCents);
+        reputation.add(startingReputation * REPUTATION_SCALE);
+    }
+
+    /**
+     * Converts whole dollars to cents.
+     * @param dollars The amount in dollars
+     * @return The amount in cents
+     */
+    public static long toCents(long dollars) {
+        return dollars * CENTS_PER_DOLLAR;
+    }
+
+    /**
+     * Formats an amount of cents as dollars with two decimals.
+     * @param cents The amount in cents
+     * @return The formatted amount, for example "12.05"
+     */
+    public static String formatMoney(long cents) {
+        long abs = Math.abs(cents);
+        return (cents < 0 ? "-" : "") + abs / CENTS_PER_DOLLAR + "." + (abs % CENTS_PER_DOLLAR < 10 ? "0" : "") + abs % CENTS_PER_DOLLAR;
+    }
+
+    /**
+     * Adds income. Safe to call from several threads at once.
+     * @param cents The income in cents
+     */
+    public void credit(long cents) {
+        income.add(cents);
+    }
+
+    /**
+     * Spends money if the balance covers it.
+     * @param cents The amount to spend in cents
+     * @return True if the money was spent, false if the balance was too low
+     */
+    public boolean trySpend(long cents) {
+        while (true) {
+            long alreadySpent = spent.get();
+            if (income.sum() - alreadySpent < cents) {
+                return false;
+            }
+            if (spent.compareAndSet(alreadySpent, alreadySpent + cents)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Adds reputation. Safe to call from several threads at once.
+     * @param points The reputation to add, in whole points
+     */
+    public void addReputation(long points) {
+        reputation.add(points * REPUTATION_SCALE);
+    }
+
+    /**
+     * Gets the balance.
+     * @return The balance in cents
+     */
+    public long getBalanceCents() {
+        return income.sum() - spent.get();
+    }
+
+    /**
+     * Gets the reputation in fixed point.
+     * @return The reputation in units of 1/REPUTATION_SCALE points
+     */
+    public long getReputationFixed() {
+        return reputation.sum();
+    }
+
+    /**
+     * Gets the reputation for display.
+     * @return The reputation in points
+     */
+    public double getReputation() {
+        return (double) reputation.sum() / REPUTATION_SCALE;
+    }
+}
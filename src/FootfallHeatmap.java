@@ -0,0 +1,195 @@
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+
+/**
+ * The FootfallHeatmap class records where customers walk and linger in a room: a visit every time a customer steps onto
+ * a tile, and dwell time while an interaction or a payment holds them on it. Old footfall fades away with a half-life.
+ * The counters are plain int arrays in fixed point, and fading is applied lazily to a tile when it is next touched, so
+ * recording a step costs a few array writes however many customers there are.
+ * The heatmap can be drawn as a translucent overlay. The overlay is kept in an image of its own and only redrawn when
+ * the footfall recorded since it was last drawn is a noticeable share of all the footfall in the room, and at most
+ * every MIN_REDRAW_NANOS of real time, so showing it costs one image per frame. The image is kept at the pixel size of
+ * the current zoom, so it is copied to the screen without scaling.
+ */
+public class FootfallHeatmap {
+    public static final int HALF_LIFE_MILLIS = 60_000;
+    private static final int ONE = 256; // Fixed point scale of the counters
+    private static final int DWELL_MILLIS_PER_VISIT = 1000; // A second spent on a tile counts as much as a visit
+    private static final double REDRAW_SHARE = 0.05;
+    private static final int REDRAW_INTERVAL_MILLIS = HALF_LIFE_MILLIS / 10;
+    private static final long MIN_REDRAW_NANOS = 250_000_000L;
+    private static final int MAX_ALPHA = 140;
+
+    private final TileGrid grid;
+    private final int[] visits;
+    private final int[] dwell;
+    private final long[] updated;
+    private BufferedImage overlay;
+    private double overlayScale;
+    private long drawnTime = Long.MIN_VALUE;
+    private long drawnNanos;
+    private long heatSinceDrawn;
+    private long drawnTotal;
+
+    /**
+     * Constructor.
+     * Initializes an empty heatmap over the tiles of a grid.
+     * @param grid The grid of the room
+     */
+    public FootfallHeatmap(TileGrid grid) {
+        this.grid = grid;
+        this.visits = new int[grid.getTileCount()];
+        this.dwell = new int[grid.getTileCount()];
+        this.updated = new long[grid.getTileCount()];
+    }
+
+    /**
+     * Records a customer stepping onto a tile.
+     * @param tile The tile
+     * @param time The simulated time
+     */
+    public void recordVisit(int tile, long time) {
+        if (tile < 0) return;
+        decay(tile, time);
+        visits[tile] += ONE;
+        heatSinceDrawn += ONE;
+    }
+
+    /**
+     * Records a customer having been held on a tile.
+     * @param tile The tile
+     * @param millis How long the customer stayed
+     * @param time The simulated time
+     */
+    public void recordDwell(int tile, long millis, long time) {
+        if (tile < 0 || millis <= 0) return;
+        decay(tile, time);
+        int amount = (int) (millis * ONE / DWELL_MILLIS_PER_VISIT);
+        dwell[tile] += amount;
+        heatSinceDrawn += amount;
+    }
+
+    /**
+     * Fades the counters of a tile to a time.
+     * @param tile The tile
+     * @param time The simulated time
+     */
+    private void decay(int tile, long time) {
+        long elapsed = time - updated[tile];
+        if (elapsed > 0) {
+            double factor = fade(elapsed);
+            visits[tile] = (int) (visits[tile] * factor);
+            dwell[tile] = (int) (dwell[tile] * factor);
+            updated[tile] = time;
+        }
+    }
+
+    /**
+     * Gets how much footfall is left after some time.
+     * @param elapsed The time in milliseconds
+     * @return The share left, from 1 down to 0
+     */
+    private static double fade(long elapsed) {
+        return Math.pow(0.5, (double) elapsed / HALF_LIFE_MILLIS);
+    }
+
+    /**
+     * Gets the heat of a tile at a time, faded but without writing the faded counters back.
+     * @param tile The tile
+     * @param time The simulated time
+     * @return Visits plus dwell seconds, in fixed point
+     */
+    private long getHeat(int tile, long time) {
+        long heat = (long) visits[tile] + dwell[tile];
+        return heat == 0 ? 0 : (long) (heat * fade(Math.max(0, time - updated[tile])));
+    }
+
+    /**
+     * Gets the number of visits to a tile, faded to a time.
+     * @param tile The tile
+     * @param time The simulated time
+     * @return The faded number of visits
+     */
+    public double getVisits(int tile, long time) {
+        return visits[tile] * fade(Math.max(0, time - updated[tile])) / ONE;
+    }
+
+    /**
+     * Gets the seconds customers were held on a tile, faded to a time.
+     * @param tile The tile
+     * @param time The simulated time
+     * @return The faded dwell time in seconds
+     */
+    public double getDwellSeconds(int tile, long time) {
+        return dwell[tile] * fade(Math.max(0, time - updated[tile])) * DWELL_MILLIS_PER_VISIT / ONE / 1000.0;
+    }
+
+    /**
+     * Draws the heatmap over the room, redrawing the overlay image first if the zoom changed, or if the footfall
+     * recorded since it was last drawn is a noticeable share of the room's footfall or enough time has passed for the
+     * fading to show, but no more often than every MIN_REDRAW_NANOS.
+     * @param g Graphics object used for drawing
+     * @param time The simulated time
+     */
+    public void render(Graphics g, long time) {
+        Graphics2D g2d = (Graphics2D) g;
+        AffineTransform transform = g2d.getTransform();
+        double scale = transform.getScaleX();
+        long now = System.nanoTime();
+        if (overlay == null || scale != overlayScale || (now - drawnNanos >= MIN_REDRAW_NANOS
+                && (heatSinceDrawn > drawnTotal * REDRAW_SHARE || time - drawnTime >= REDRAW_INTERVAL_MILLIS))) {
+            redraw(time, scale);
+            drawnNanos = now;
+        }
+        g2d.setTransform(new AffineTransform(1, 0, 0, 1, transform.getTranslateX(), transform.getTranslateY()));
+        g2d.drawImage(overlay, 0, 0, null);
+        g2d.setTransform(transform);
+    }
+
+    /**
+     * Redraws the overlay image, colouring each tile from yellow to red and more opaquely the hotter it is compared to
+     * the hottest tile.
+     * @param time The simulated time
+     * @param scale Pixels per game coordinate on the screen
+     */
+    private void redraw(long time, double scale) {
+        int tileSize = grid.getTileSize();
+        int pixelWidth = (int) Math.ceil(grid.getColumns() * tileSize * scale);
+        int pixelHeight = (int) Math.ceil(grid.getRows() * tileSize * scale);
+        if (overlay == null || overlay.getWidth() != pixelWidth || overlay.getHeight() != pixelHeight) {
+            overlay = new BufferedImage(pixelWidth, pixelHeight, BufferedImage.TYPE_INT_ARGB);
+        }
+        overlayScale = scale;
+        long peak = 0;
+        long total = 0;
+        for (int tile = 0; tile < visits.length; tile++) {
+            long heat = getHeat(tile, time);
+            peak = Math.max(peak, heat);
+            total += heat;
+        }
+
+        Graphics2D g = overlay.createGraphics();
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(0, 0, overlay.getWidth(), overlay.getHeight());
+        g.setComposite(AlphaComposite.SrcOver);
+        g.scale(scale, scale);
+        if (peak > 0) {
+            for (int tile = 0; tile < visits.length; tile++) {
+                long heat = getHeat(tile, time);
+                if (heat == 0) continue;
+                double share = (double) heat / peak;
+                g.setColor(new Color(255, (int) (220 * (1 - share)), 0, (int) (MAX_ALPHA * share)));
+                g.fillRect(grid.getX(tile), grid.getY(tile), tileSize, tileSize);
+            }
+        }
+        g.dispose();
+
+        drawnTime = time;
+        drawnTotal = total;
+        heatSinceDrawn = 0;
+    }
+
+    // Getters for the FootfallHeatmap class attributes.
+    public TileGrid getGrid() { return grid; }
+}
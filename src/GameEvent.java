@@ -0,0 +1,74 @@
+/**
+ * The GameEvent class describes something that happened in a GameWorld during a tick. Events are stored in the
+ * preallocated slots of a GameEventBus and reused for later ticks, so listeners must copy anything they want to keep
+ * instead of holding on to the event.
+ */
+public class GameEvent {
+    /**
+     * Type enum listing the kinds of events a GameWorld publishes.
+     */
+    public enum Type {
+        CUSTOMER_PAID,
+        INTERACTION_STARTED,
+        WASTE_SPAWNED,
+        WASTE_CLEANED,
+        ITEM_PLACED,
+        CUSTOMER_LEFT,
+        CUSTOMER_SPAWNED
+    }
+
+    Type type;
+    long time;
+    Object subject;
+    int x, y;
+    long value;
+
+    /**
+     * Gets the type of the event.
+     * @return The type of the event
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Gets the simulated time the event happened at.
+     * @return The time in milliseconds
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Gets the customer or item the event is about, if any.
+     * @return The subject of the event, or null
+     */
+    public Object getSubject() {
+        return subject;
+    }
+
+    /**
+     * Gets the x position the event happened at.
+     * @return The x position
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Gets the y position the event happened at.
+     * @return The y position
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * Gets the value of the event: cents earned for CUSTOMER_PAID and INTERACTION_STARTED, the price for ITEM_PLACED,
+     * the satisfaction for CUSTOMER_LEFT and CUSTOMER_SPAWNED, and the reputation gained for WASTE_CLEANED.
+     * @return The value of the event
+     */
+    public long getValue() {
+        return value;
+    }
+}
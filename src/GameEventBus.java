@@ -0,0 +1,115 @@
+import java.util.ArrayList;
+
+/**
+ * The GameEventBus class buffers the GameEvents of one tick in a ring of preallocated slots and hands them to every
+ * listener in one batch when dispatch() is called at the end of the tick. Publishing an event only fills in a slot, so
+ * it does not allocate; the ring only grows if a single tick publishes more events than it has slots.
+ * A bus belongs to one world and must only be used from the thread that runs that world.
+ */
+public class GameEventBus {
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private GameEvent[] ring;
+    private int head;
+    private int size;
+    private ArrayList<GameEventListener> listeners = new ArrayList<>();
+
+    /**
+     * Constructor.
+     * Initializes an empty bus with the default number of slots.
+     */
+    public GameEventBus() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor.
+     * Initializes an empty bus.
+     * @param capacity Number of event slots to preallocate
+     */
+    public GameEventBus(int capacity) {
+        ring = new GameEvent[capacity];
+        for (int i = 0; i < capacity; i++) {
+            ring[i] = new GameEvent();
+        }
+    }
+
+    /**
+     * Adds a listener that receives every event from now on.
+     * @param listener The listener to add
+     */
+    public void subscribe(GameEventListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener.
+     * @param listener The listener to remove
+     */
+    public void unsubscribe(GameEventListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Buffers an event until the next dispatch.
+     * @param type The type of the event
+     * @param time The simulated time of the event
+     * @param subject The customer or item the event is about, or null
+     * @param x The x position of the event
+     * @param y The y position of the event
+     * @param value The value of the event
+     */
+    public void publish(GameEvent.Type type, long time, Object subject, int x, int y, long value) {
+        if (listeners.isEmpty()) return;
+        if (size == ring.length) {
+            grow();
+        }
+        GameEvent event = ring[(head + size) % ring.length];
+        event.type = type;
+        event.time = time;
+        event.subject = subject;
+        event.x = x;
+        event.y = y;
+        event.value = value;
+        size++;
+    }
+
+    /**
+     * Delivers all buffered events to every listener, then tells each listener that the batch has ended.
+     * @return The number of events delivered
+     */
+    public int dispatch() {
+        int dispatched = size;
+        while (size > 0) {
+            GameEvent event = ring[head];
+            for (int i = 0; i < listeners.size(); i++) {
+                listeners.get(i).onEvent(event);
+            }
+            event.subject = null; // Do not keep removed customers and items alive
+            head = (head + 1) % ring.length;
+            size--;
+        }
+        head = 0;
+        if (dispatched > 0) {
+            for (int i = 0; i < listeners.size(); i++) {
+                listeners.get(i).onBatchEnd();
+            }
+        }
+        return dispatched;
+    }
+
+    /**
+     * Doubles the number of slots, keeping the buffered events in order.
+     */
+    private void grow() {
+        GameEvent[] bigger = new GameEvent[ring.length * 2];
+        for (int i = 0; i < ring.length; i++) {
+            bigger[i] = ring[(head + i) % ring.length];
+        }
+        for (int i = ring.length; i < bigger.length; i++) {
+            bigger[i] = new GameEvent();
+        }
+        ring = bigger;
+        head = 0;
+    }
+}
@@ -0,0 +1,17 @@
+/**
+ * The GameEventListener interface is implemented by anything that wants to be told about GameEvents. Events are
+ * delivered on the thread that runs the world, in one batch at the end of each tick.
+ */
+public interface GameEventListener {
+    /**
+     * Called once for each event of the tick that just ended.
+     * @param event The event, which is only valid during this call
+     */
+    void onEvent(GameEvent event);
+
+    /**
+     * Called after all events of a tick have been delivered, so listeners can apply their updates once per tick.
+     */
+    default void onBatchEnd() {
+    }
+}
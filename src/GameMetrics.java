@@ -0,0 +1,192 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * The GameMetrics class collects runtime measurements of the simulation and the renderer and exposes them as an MBean
+ * named "CatFamirry:type=GameMetrics". Everything on the hot path is a LongAdder, a lock-free histogram or a volatile
+ * write, so the metrics can stay on in production; rates and percentiles are only computed when an attribute is read.
+ */
+public class GameMetrics implements GameMetricsMBean {
+    private static final GameMetrics INSTANCE = new GameMetrics();
+
+    private final LatencyHistogram tickTimes = new LatencyHistogram();
+    private final LatencyHistogram paintTimes = new LatencyHistogram();
+    private final LongAdder pathSearches = new LongAdder();
+    private final LongAdder nodesExpanded = new LongAdder();
+    private final LongAdder pathNanos = new LongAdder();
+
+    private volatile int activeCustomers;
+    private volatile int activeWaste;
+    private volatile int activeItems;
+    private volatile long customersSpawned;
+    private volatile double money;
+    private volatile double reputation;
+    private volatile QualityGovernor qualityGovernor;
+
+    private final RateMeter pathSearchRate = new RateMeter();
+    private final RateMeter nodesExpandedRate = new RateMeter();
+    private final RateMeter spawnRate = new RateMeter();
+    private final RateMeter moneyRate = new RateMeter();
+    private final RateMeter reputationRate = new RateMeter();
+
+    /**
+     * Gets the shared metrics instance.
+     * @return The metrics
+     */
+    public static GameMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server so JConsole and VisualVM can read them.
+     */
+    public static void register() {
+        try {
+            ObjectName name = new ObjectName("CatFamirry:type=GameMetrics");
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, name);
+            }
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Records how long one simulation tick took.
+     * @param nanos The duration in nanoseconds
+     */
+    public void recordTick(long nanos) {
+        tickTimes.record(nanos);
+    }
+
+    /**
+     * Records how long one paint took.
+     * @param nanos The duration in nanoseconds
+     */
+    public void recordPaint(long nanos) {
+        paintTimes.record(nanos);
+    }
+
+    /**
+     * Sets the governor whose level and frame times are reported.
+     * @param governor The governor, or null if there is none
+     */
+    public void setQualityGovernor(QualityGovernor governor) {
+        qualityGovernor = governor;
+    }
+
+    /**
+     * Records one D* Lite search, either a new plan or the repair of one.
+     * @param expanded The number of nodes the search expanded
+     * @param nanos How long the search took in nanoseconds
+     */
+    public void recordPathSearch(int expanded, long nanos) {
+        pathSearches.increment();
+        nodesExpanded.add(expanded);
+        pathNanos.add(nanos);
+    }
+
+    /**
+     * Gets the total time spent in D* Lite searches.
+     * @return The time in nanoseconds
+     */
+    public long getPathNanos() {
+        return pathNanos.sum();
+    }
+
+    /**
+     * Samples the state of the world after a tick.
+     * @param world The world shown on screen
+     */
+    public void sampleWorld(GameWorld world) {
+        activeCustomers = world.getCustomers().size();
+        activeWaste = world.getWasteList().size();
+        activeItems = world.getItems().size();
+        customersSpawned = world.getCustomersSpawned();
+        money = world.getMoney();
+        reputation = world.getReputation();
+        long now = System.nanoTime();
+        pathSearchRate.sample(pathSearches.sum(), now);
+        nodesExpandedRate.sample(nodesExpanded.sum(), now);
+        spawnRate.sample(customersSpawned, now);
+        moneyRate.sample(money, now);
+        reputationRate.sample(reputation, now);
+    }
+
+    @Override public long getTickCount() { return tickTimes.getCount(); }
+    @Override public double getTickMeanMicros() { return tickTimes.getMean() / 1000.0; }
+    @Override public long getTickP50Micros() { return tickTimes.getPercentile(50) / 1000; }
+    @Override public long getTickP99Micros() { return tickTimes.getPercentile(99) / 1000; }
+    @Override public long getTickMaxMicros() { return tickTimes.getMax() / 1000; }
+
+    @Override public long getPaintCount() { return paintTimes.getCount(); }
+    @Override public double getPaintMeanMicros() { return paintTimes.getMean() / 1000.0; }
+    @Override public long getPaintP50Micros() { return paintTimes.getPercentile(50) / 1000; }
+    @Override public long getPaintP99Micros() { return paintTimes.getPercentile(99) / 1000; }
+    @Override public long getPaintMaxMicros() { return paintTimes.getMax() / 1000; }
+
+    @Override public long getPathSearches() { return pathSearches.sum(); }
+    @Override public long getNodesExpanded() { return nodesExpanded.sum(); }
+    @Override public double getPathSearchesPerSecond() { return pathSearchRate.rate(); }
+    @Override public double getNodesExpandedPerSecond() { return nodesExpandedRate.rate(); }
+
+    @Override public int getActiveCustomers() { return activeCustomers; }
+    @Override public int getActiveWaste() { return activeWaste; }
+    @Override public int getActiveItems() { return activeItems; }
+    @Override public double getSpawnsPerSecond() { return spawnRate.rate(); }
+    @Override public double getMoney() { return money; }
+    @Override public double getReputation() { return reputation; }
+    @Override public double getMoneyPerSecond() { return moneyRate.rate(); }
+    @Override public double getReputationPerSecond() { return reputationRate.rate(); }
+
+    @Override public long getAssetCacheHits() { return AssetCache.getHits(); }
+    @Override public long getAssetCacheMisses() { return AssetCache.getMisses(); }
+    @Override public int getAssetCacheSize() { return AssetCache.getSize(); }
+    @Override public double getAssetLoadMillis() { return AssetCache.getLoadNanos() / 1e6; }
+
+    @Override public int getQualityLevel() { QualityGovernor g = qualityGovernor; return g == null ? 0 : g.getLevel(); }
+    @Override public int getQualityMaxLevel() { return QualityGovernor.Tier.values().length; }
+    @Override public String getQualityLevelDescription() { QualityGovernor g = qualityGovernor; return g == null ? "full quality" : g.getLevelDescription(); }
+    @Override public String[] getQualityTiers() { return QualityGovernor.getTierDescriptions(); }
+    @Override public long getQualityLevelChanges() { QualityGovernor g = qualityGovernor; return g == null ? 0 : g.getLevelChanges(); }
+    @Override public long getFrameBudgetMicros() { QualityGovernor g = qualityGovernor; return g == null ? 0 : g.getBudgetNanos() / 1000; }
+    @Override public long getFrameP90Micros() { QualityGovernor g = qualityGovernor; return g == null ? 0 : g.getWindowP90Nanos() / 1000; }
+
+    @Override
+    public void resetHistograms() {
+        tickTimes.reset();
+        paintTimes.reset();
+    }
+
+    /**
+     * RateMeter class that turns a running total into a rate per second over the last few seconds. The total is sampled
+     * when the world is sampled, at most once per SAMPLE_NANOS, into a small ring; reading the rate does not change
+     * anything, so any number of readers see the same rate.
+     */
+    private static class RateMeter {
+        private static final long SAMPLE_NANOS = 250_000_000L;
+        private static final int SAMPLES = 9; // Eight intervals: a rate over the last two seconds
+
+        private final double[] values = new double[SAMPLES];
+        private final long[] times = new long[SAMPLES];
+        private int newest = -1;
+        private int count;
+
+        synchronized void sample(double value, long now) {
+            if (count > 0 && now - times[newest] < SAMPLE_NANOS) return;
+            newest = (newest + 1) % SAMPLES;
+            values[newest] = value;
+            times[newest] = now;
+            count = Math.min(SAMPLES, count + 1);
+        }
+
+        synchronized double rate() {
+            if (count < 2) return 0;
+            int oldest = (newest - count + 1 + SAMPLES) % SAMPLES;
+            double seconds = (times[newest] - times[oldest]) / 1e9;
+            return seconds > 0 ? (values[newest] - values[oldest]) / seconds : 0;
+        }
+    }
+}
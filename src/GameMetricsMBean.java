@@ -0,0 +1,46 @@
+/**
+ * The GameMetricsMBean interface is the management interface of the GameMetrics class, so its attributes can be read
+ * with JConsole or VisualVM. Durations are in microseconds and rates are per second over the last two seconds.
+ */
+public interface GameMetricsMBean {
+    long getTickCount();
+    double getTickMeanMicros();
+    long getTickP50Micros();
+    long getTickP99Micros();
+    long getTickMaxMicros();
+
+    long getPaintCount();
+    double getPaintMeanMicros();
+    long getPaintP50Micros();
+    long getPaintP99Micros();
+    long getPaintMaxMicros();
+
+    long getPathSearches();
+    long getNodesExpanded();
+    double getPathSearchesPerSecond();
+    double getNodesExpandedPerSecond();
+
+    int getActiveCustomers();
+    int getActiveWaste();
+    int getActiveItems();
+    double getSpawnsPerSecond();
+    double getMoney();
+    double getReputation();
+    double getMoneyPerSecond();
+    double getReputationPerSecond();
+
+    long getAssetCacheHits();
+    long getAssetCacheMisses();
+    int getAssetCacheSize();
+    double getAssetLoadMillis();
+
+    int getQualityLevel();
+    int getQualityMaxLevel();
+    String getQualityLevelDescription();
+    String[] getQualityTiers();
+    long getQualityLevelChanges();
+    long getFrameBudgetMicros();
+    long getFrameP90Micros();
+
+    void resetHistograms();
+}
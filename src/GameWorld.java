@@ -0,0 +1,498 @@
+import java.awt.*;
+import java.util.*;
+import java.util.function.IntConsumer;
+
+/**
+ * The GameWorld class holds the simulation state of the shop: the items, customers and waste, the money and reputation,
+ * and a simulated clock. It has no dependency on Swing, so the same simulation that the Driver shows on screen can be run
+ * headlessly (for example by the SessionReplayer). All randomness comes from a single seeded Random, and all timing comes
+ * from the simulated clock, which only advances when tick() is called, so a session is fully described by its seed and
+ * the inputs applied between ticks. Every timed behaviour (customer steps, payments, interactions, arrivals and waste
+ * spawns) is a deadline on the world's TimingWheel.
+ * A world can also be one room of a Venue: it then shares the Venue's ledger, may be closed to the street, and hands
+ * customers who walk out through its door to the Venue instead of letting them leave.
+ * A world may be given the part of it that is on screen. Customers outside it are simulated at a lower level of detail:
+ * they take several steps per update and have their item interactions sampled, see Customer. Without a viewport, as in
+ * headless simulations, every customer is simulated at full detail. A minimum number of steps per update can lower the
+ * detail of customers on screen as well, when the game is short of time.
+ */
+public class GameWorld {
+    public static final int TILE_SIZE = 50;
+    public static final int DEFAULT_WIDTH = 800;
+    public static final int DEFAULT_HEIGHT = 600;
+    public static final int TICK_MILLIS = 16;
+    public static final int WASTE_INTERVAL = 33000;
+    public static final int CUSTOMER_IMAGE_COUNT = 15;
+
+    private static final int MAX_WASTE_COUNT = 10;
+    public static final int DEFAULT_CUSTOMER_CAPACITY = 10;
+    private static final int LOD_NEAR_TILES = 3; // Customers this close to the viewport are about to come into view
+    private static final int LOD_NEAR_STEPS = 2;
+    private static final int LOD_FAR_STEPS = 6;
+
+    private final long seed;
+    private final Random random;
+    private final int width, height;
+    private ArrayList<Waste> wasteList;
+    private ArrayList<Item> items;
+    private TileGrid grid;
+    private final FootfallHeatmap heatmap;
+    private final PathPlanner.SearchPool plannerPool;
+    private final IntConsumer tileChanged = this::onTileChanged;
+    private ArrayList<Customer> customers;
+    private EconomyLedger ledger;
+    private boolean paused;
+    private long tickCount;
+    private TimingWheel wheel;
+    private TimedEvent wasteEvent = new TimedEvent(this::onWasteDue);
+    private TimedEvent arrivalEvent = new TimedEvent(this::onArrivalDue);
+    private long customersSpawned;
+    private SessionRecorder recorder;
+    private GameEventBus events;
+    private CustomerHandOff handOff;
+    private boolean openToStreet = true;
+    private ArrivalModel arrivalModel = new GeometricArrivalModel();
+    private int customerCapacity = DEFAULT_CUSTOMER_CAPACITY;
+    private int wasteInterval = WASTE_INTERVAL;
+    private long tickReputation;
+    private Rectangle viewport;
+    private int minStepsPerUpdate = 1;
+    private long stepStart, stepEnd; // The simulated time span of the step being run or last run
+
+    /**
+     * Constructor.
+     * Initializes an empty shop of the default size.
+     * @param seed Seed for all randomness in this world
+     */
+    public GameWorld(long seed) {
+        this(seed, DEFAULT_WIDTH, DEFAULT_HEIGHT);
+    }
+
+    /**
+     * Constructor.
+     * Initializes an empty shop with the given size.
+     * @param seed Seed for all randomness in this world
+     * @param width Width of the shop in pixels
+     * @param height Height of the shop in pixels
+     */
+    public GameWorld(long seed, int width, int height) {
+        this(seed, width, height, new EconomyLedger(EconomyLedger.toCents(100), 100));
+    }
+
+    /**
+     * Constructor.
+     * Initializes an empty shop with the given size that keeps its money and reputation in the given ledger, which
+     * may be shared with other worlds.
+     * @param seed Seed for all randomness in this world
+     * @param width Width of the shop in pixels
+     * @param height Height of the shop in pixels
+     * @param ledger The ledger for money and reputation
+     */
+    public GameWorld(long seed, int width, int height, EconomyLedger ledger) {
+        this.seed = seed;
+        this.random = new Random(seed);
+        this.width = width;
+        this.height = height;
+        this.wasteList = new ArrayList<>();
+        this.items = new ArrayList<>();
+        this.grid = new TileGrid(width, height, TILE_SIZE);
+        this.heatmap = new FootfallHeatmap(grid);
+        this.plannerPool = new PathPlanner.SearchPool(grid);
+        this.customers = new ArrayList<>();
+        this.ledger = ledger;
+        this.events = new GameEventBus();
+        this.wheel = new TimingWheel();
+        this.tickReputation = ledger.getReputationFixed();
+        wheel.schedule(wasteEvent, WASTE_INTERVAL);
+        scheduleNextArrival(0);
+    }
+
+    /**
+     * Advances the simulation by one tick. Only the customers, arrivals and waste spawns whose deadline falls within the
+     * tick do any work; then the events of the tick are dispatched to the listeners of the event bus. A paused world
+     * does not advance.
+     */
+    public void tick() {
+        beginTick();
+        advance(1);
+        events.dispatch();
+    }
+
+    /**
+     * Takes the reputation that arrivals in the coming tick are based on. Reading it once before the tick keeps arrivals
+     * deterministic when the ledger is shared with rooms that are ticked at the same time.
+     */
+    void beginTick() {
+        tickReputation = ledger.getReputationFixed();
+    }
+
+    /**
+     * Advances the simulation by a step of one or more ticks without dispatching its events. A Venue advances its rooms
+     * on worker threads this way and then dispatches their events on its own thread. A step of several ticks runs every
+     * deadline within it in one pass over the timing wheel, in the same order as the ticks one by one would, but
+     * arrivals in the whole step are based on the reputation taken before it.
+     * @param ticks Number of ticks in the step
+     */
+    void advance(int ticks) {
+        if (paused) return;
+        tickCount += ticks;
+        stepStart = wheel.getTime();
+        stepEnd = stepStart + (long) ticks * TICK_MILLIS;
+        wheel.advanceTo(stepEnd);
+    }
+
+    /**
+     * Lets in a customer who walked through a doorway from another room, if there is room for them. Must be called
+     * between ticks, on the thread that ticks this world.
+     * @param customer The customer
+     * @return True if the customer came in, false if the room is full
+     */
+    public boolean acceptCustomer(Customer customer) {
+        if (customers.size() >= customerCapacity) {
+            return false;
+        }
+        customer.enterRoom(this);
+        customers.add(customer);
+        customer.start();
+        return true;
+    }
+
+    /**
+     * Opens or closes the room to new customers from the street. A closed room only gets customers through doorways.
+     * @param openToStreet True if new customers arrive in this room
+     */
+    public void setOpenToStreet(boolean openToStreet) {
+        if (this.openToStreet == openToStreet) return;
+        this.openToStreet = openToStreet;
+        if (openToStreet) {
+            scheduleNextArrival(getTime());
+        } else {
+            wheel.cancel(arrivalEvent);
+        }
+    }
+
+    /**
+     * Lets a customer in if there is room, then schedules the next arrival.
+     * @param time The simulated time
+     */
+    private void onArrivalDue(long time) {
+        spawnCustomer();
+        scheduleNextArrival(time);
+    }
+
+    /**
+     * Lets a new customer in at the entrance if there is room.
+     * @return True if the customer came in, false if the shop is full
+     */
+    public boolean spawnCustomer() {
+        if (customers.size() >= customerCapacity) {
+            return false;
+        }
+        int imageIndex = random.nextInt(CUSTOMER_IMAGE_COUNT) + 1;
+        int initialSatisfaction = random.nextInt(50) + 50;
+        Customer customer = new Customer(this, getEntranceX(), TILE_SIZE, initialSatisfaction, imageIndex);
+        customers.add(customer);
+        customersSpawned++;
+        events.publish(GameEvent.Type.CUSTOMER_SPAWNED, getTime(), customer, customer.getX(), customer.getY(), initialSatisfaction);
+        customer.start();
+        return true;
+    }
+
+    /**
+     * Schedules the next customer arrival at the time drawn by the arrival model.
+     * @param time The simulated time
+     */
+    private void scheduleNextArrival(long time) {
+        wheel.schedule(arrivalEvent, time + Math.max(0, arrivalModel.nextArrivalDelay(time, tickReputation, random)));
+    }
+
+    /**
+     * Replaces the arrival model and draws the next arrival from it.
+     * @param arrivalModel The arrival model
+     */
+    public void setArrivalModel(ArrivalModel arrivalModel) {
+        this.arrivalModel = arrivalModel;
+        if (openToStreet) {
+            scheduleNextArrival(getTime());
+        }
+    }
+
+    /**
+     * Sets the time between waste spawns and schedules the next spawn one interval from now.
+     * @param wasteInterval The interval in simulated milliseconds, at least one tick
+     */
+    public void setWasteInterval(int wasteInterval) {
+        this.wasteInterval = Math.max(TICK_MILLIS, wasteInterval);
+        wheel.schedule(wasteEvent, getTime() + this.wasteInterval);
+    }
+
+    /**
+     * Lets customers arrive as a Poisson process at the given rate instead of by the original rule.
+     * @param arrivalsPerMinute Arrivals per minute for every 1000 reputation
+     */
+    public void setArrivalRate(double arrivalsPerMinute) {
+        record(SessionRecorder.ARRIVAL_RATE, Double.toString(arrivalsPerMinute));
+        setArrivalModel(new PoissonArrivalModel(arrivalsPerMinute));
+    }
+
+    /**
+     * Sets how many customers can be in the shop at once. Arrivals while the shop is full are turned away.
+     * @param customerCapacity The capacity, at least 1
+     */
+    public void setCustomerCapacity(int customerCapacity) {
+        record(SessionRecorder.CAPACITY, Integer.toString(customerCapacity));
+        this.customerCapacity = Math.max(1, customerCapacity);
+    }
+
+    /**
+     * Spawns waste and schedules the next spawn.
+     * @param time The simulated time
+     */
+    private void onWasteDue(long time) {
+        spawnWaste();
+        wheel.schedule(wasteEvent, time + wasteInterval);
+    }
+
+    /**
+     * Pays for a customer's visit once they have finished paying at the cashier.
+     * @param customer The customer who paid
+     */
+    public void customerPaid(Customer customer) {
+        ledger.credit(EconomyLedger.toCents(5));
+        events.publish(GameEvent.Type.CUSTOMER_PAID, getTime(), customer, customer.getX(), customer.getY(), EconomyLedger.toCents(5));
+    }
+
+    /**
+     * Removes a customer who has reached the entrance on their way out. In a Venue the customer may walk on into
+     * another room instead of leaving.
+     * @param customer The customer who left
+     */
+    public void customerLeft(Customer customer) {
+        customer.stop();
+        customers.remove(customer);
+        if (handOff != null && handOff.handOff(this, customer)) {
+            return;
+        }
+        publishLeft(customer);
+    }
+
+    /**
+     * Publishes that a customer has left. A Venue also calls this between ticks for a customer who found the doorway
+     * they walked out through full.
+     * @param customer The customer who left
+     */
+    void publishLeft(Customer customer) {
+        events.publish(GameEvent.Type.CUSTOMER_LEFT, getTime(), customer, customer.getX(), customer.getY(), customer.getSatisfaction());
+    }
+
+    /**
+     * Schedules an event on the world's timing wheel, moving it if it is already scheduled.
+     * @param event The event
+     * @param deadline The simulated time to run it at
+     */
+    public void schedule(TimedEvent event, long deadline) {
+        wheel.schedule(event, deadline);
+    }
+
+    /**
+     * Cancels an event on the world's timing wheel.
+     * @param event The event
+     */
+    public void cancel(TimedEvent event) {
+        wheel.cancel(event);
+    }
+
+    /**
+     * Dispatches events published by inputs while no ticks are running, for example while the game is paused.
+     */
+    public void flushEvents() {
+        events.dispatch();
+    }
+
+    /**
+     * Spawns a waste item at a random position in the shop.
+     */
+    private void spawnWaste() {
+        if (wasteList.size() < MAX_WASTE_COUNT) {
+            int x = random.nextInt(width - 50);
+            int y = random.nextInt(height - TILE_SIZE - 50) + TILE_SIZE;
+            wasteList.add(new Waste(x, y));
+            events.publish(GameEvent.Type.WASTE_SPAWNED, getTime(), null, x, y, 0);
+        }
+    }
+
+    /**
+     * Handles a click in the shop: a click on a customer next to an item starts an interaction, otherwise a click on
+     * waste cleans it up.
+     * @param mouseX X coordinate of the click
+     * @param mouseY Y coordinate of the click
+     */
+    public void clickAt(int mouseX, int mouseY) {
+        record(SessionRecorder.CLICK, mouseX + " " + mouseY);
+
+        boolean interacted = false;
+        // Check for customer interactions with items
+        for (Customer customer : customers) {
+            if (customer.contains(mouseX, mouseY)) {
+                for (Item item : items) {
+                    if (Math.abs(customer.getX() - item.getX()) <= TILE_SIZE && Math.abs(customer.getY() - item.getY()) <= TILE_SIZE) {
+                        customer.interactWithItem(item, this);
+                        interacted = true;
+                        break;
+                    }
+                }
+            }
+            if (interacted) break;
+        }
+
+        // Check for waste interactions
+        if (!interacted) {
+            for (int i = 0; i < wasteList.size(); i++) {
+                Waste waste = wasteList.get(i);
+                if (waste.contains(mouseX, mouseY)) {
+                    wasteList.remove(i);
+                    ledger.addReputation(5);
+                    events.publish(GameEvent.Type.WASTE_CLEANED, getTime(), waste, mouseX, mouseY, 5);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Picks up the placed item under the given point, removing it from the shop.
+     * @param mouseX X coordinate of the press
+     * @param mouseY Y coordinate of the press
+     * @return The item that was picked up, or null if there is none at that point
+     */
+    public Item pickUpItem(int mouseX, int mouseY) {
+        for (Item item : items) {
+            if (item.contains(mouseX, mouseY)) {
+                record(SessionRecorder.PICKUP, mouseX + " " + mouseY);
+                items.remove(item);
+                grid.removeItem(item, tileChanged);
+                return item;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Places a new item in the shop.
+     * @param type Type of the item
+     * @param color Color of the item
+     * @param x X position of the item, already snapped to the grid
+     * @param y Y position of the item, already snapped to the grid
+     * @param price Price of the item
+     */
+    public void placeItem(String type, Color color, int x, int y, int price) {
+        record(SessionRecorder.PLACE, x + " " + y + " " + price + " " + color.getRGB() + " " + type);
+        Item item = new Item(type, color, x, y, price);
+        items.add(item);
+        grid.addItem(item, tileChanged);
+        events.publish(GameEvent.Type.ITEM_PLACED, getTime(), item, x, y, price);
+    }
+
+    /**
+     * Buys an item if there is enough money. The bought item is kept off screen until it is placed.
+     * @param type Type of the item
+     * @param price Price of the item
+     * @return True if the item was bought, false if there was not enough money
+     */
+    public boolean purchase(String type, int price) {
+        if (!ledger.trySpend(EconomyLedger.toCents(price))) {
+            return false;
+        }
+        record(SessionRecorder.PURCHASE, price + " " + type);
+        items.add(new Item(type, Color.YELLOW, -50, -50, price));
+        return true;
+    }
+
+    /**
+     * Pauses or resumes the world, as happens when the shop window is opened and closed. Simulated time, and with it
+     * every scheduled deadline, stands still while the world is paused.
+     * @param paused True to pause, false to resume
+     */
+    public void setPaused(boolean paused) {
+        record(paused ? SessionRecorder.SHOP_OPEN : SessionRecorder.SHOP_CLOSE, "");
+        this.paused = paused;
+    }
+
+    /**
+     * Lets every customer repair their path around a tile that an item was placed on or taken from.
+     * @param tile The tile
+     */
+    private void onTileChanged(int tile) {
+        for (Customer customer : customers) {
+            customer.tileChanged(tile);
+        }
+    }
+
+    /**
+     * Records an input if a recorder is attached.
+     * @param type Type of the input
+     * @param args Arguments of the input
+     */
+    private void record(String type, String args) {
+        if (recorder != null) {
+            recorder.record(tickCount, type, args);
+        }
+    }
+
+    /**
+     * Gets how many steps a customer at a position takes per update, by how far the position is from the viewport:
+     * one on screen, a few just outside it, and more further away or when the room is not on screen at all. Never fewer
+     * than the minimum steps per update.
+     * @param x X position of the customer
+     * @param y Y position of the customer
+     * @return Steps per update, 1 for full detail
+     */
+    public int getStepsPerUpdate(int x, int y) {
+        if (viewport == null) return minStepsPerUpdate;
+        if (viewport.isEmpty()) return Math.max(minStepsPerUpdate, LOD_FAR_STEPS);
+        int dx = Math.max(0, Math.max(viewport.x - (x + TILE_SIZE), x - (viewport.x + viewport.width)));
+        int dy = Math.max(0, Math.max(viewport.y - (y + TILE_SIZE), y - (viewport.y + viewport.height)));
+        if (dx == 0 && dy == 0) return minStepsPerUpdate;
+        return Math.max(minStepsPerUpdate, Math.max(dx, dy) <= LOD_NEAR_TILES * TILE_SIZE ? LOD_NEAR_STEPS : LOD_FAR_STEPS);
+    }
+
+    /**
+     * Gets the x position of the entrance tile.
+     * @return The x position of the entrance tile
+     */
+    public int getEntranceX() {
+        return 375 / TILE_SIZE * TILE_SIZE;
+    }
+
+    // Getters and setters for the GameWorld class attributes.
+    public long getSeed() { return seed; }
+    public Random getRandom() { return random; }
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public int getTileSize() { return TILE_SIZE; }
+    public ArrayList<Waste> getWasteList() { return wasteList; }
+    public ArrayList<Item> getItems() { return items; }
+    public TileGrid getGrid() { return grid; }
+    public FootfallHeatmap getHeatmap() { return heatmap; }
+    public PathPlanner.SearchPool getPlannerPool() { return plannerPool; }
+    public ArrayList<Customer> getCustomers() { return customers; }
+    public EconomyLedger getLedger() { return ledger; }
+    public GameEventBus getEvents() { return events; }
+    public double getMoney() { return ledger.getBalanceCents() / (double) EconomyLedger.CENTS_PER_DOLLAR; }
+    public double getReputation() { return ledger.getReputation(); }
+    public boolean isPaused() { return paused; }
+    public long getTime() { return wheel.getTime(); }
+    public long getTickCount() { return tickCount; }
+    public long getStepStart() { return stepStart; }
+    public long getStepEnd() { return stepEnd; }
+    public long getCustomersSpawned() { return customersSpawned; }
+    public void setRecorder(SessionRecorder recorder) { this.recorder = recorder; }
+    public boolean isOpenToStreet() { return openToStreet; }
+    public ArrivalModel getArrivalModel() { return arrivalModel; }
+    public int getCustomerCapacity() { return customerCapacity; }
+    public void setHandOff(CustomerHandOff handOff) { this.handOff = handOff; }
+    public Rectangle getViewport() { return viewport; }
+    public void setViewport(Rectangle viewport) { this.viewport = viewport; }
+    public int getMinStepsPerUpdate() { return minStepsPerUpdate; }
+    public void setMinStepsPerUpdate(int minStepsPerUpdate) { this.minStepsPerUpdate = Math.max(1, minStepsPerUpdate); }
+}
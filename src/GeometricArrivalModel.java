@@ -0,0 +1,27 @@
+import java.util.Random;
+
+/**
+ * The GeometricArrivalModel class is the game's original arrival rule: on each tick a customer arrives with a chance of
+ * one in 300 for every 3000 reputation (rounded up). The number of ticks until the next arrival follows the matching
+ * geometric distribution, so it is drawn once per arrival.
+ */
+public class GeometricArrivalModel implements ArrivalModel {
+    /**
+     * Draws the number of ticks until the next arrival and converts it to milliseconds.
+     * @param time The simulated time in milliseconds
+     * @param reputationFixed The reputation of the shop, in hundredths
+     * @param random The world's source of randomness
+     * @return The delay in milliseconds
+     */
+    @Override
+    public long nextArrivalDelay(long time, long reputationFixed, Random random) {
+        long scale = 3000L * EconomyLedger.REPUTATION_SCALE;
+        long chances = Math.min(300, (reputationFixed + scale - 1) / scale);
+        long ticks = 1;
+        if (chances > 0 && chances < 300) {
+            double p = chances / 300.0;
+            ticks = 1 + (long) Math.floor(Math.log(1 - random.nextDouble()) / Math.log(1 - p));
+        }
+        return ticks * GameWorld.TICK_MILLIS;
+    }
+}
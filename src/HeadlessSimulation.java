@@ -0,0 +1,93 @@
+import java.util.Locale;
+
+/**
+ * The HeadlessSimulation class runs one GameWorld without a window, as fast as possible, and keeps a summary of what
+ * happened. Each simulation owns its world, so many can run on different threads at the same time.
+ */
+public class HeadlessSimulation implements GameEventListener {
+    private GameWorld world;
+    private long customersPaid;
+    private long customersLeft;
+    private long interactions;
+    private long interactionIncomeCents;
+
+    /**
+     * Constructor.
+     * Sets up a world with the given seed and layout.
+     * @param seed Seed of the world
+     * @param layout Items to place before the simulation starts, or null for an empty shop
+     */
+    public HeadlessSimulation(long seed, ShopLayout layout) {
+        world = new GameWorld(seed);
+        if (layout != null) {
+            layout.applyTo(world);
+        }
+        world.getEvents().subscribe(this);
+    }
+
+    /**
+     * Runs the simulation for a number of simulated hours.
+     * @param hours Simulated hours to run
+     */
+    public void runHours(double hours) {
+        runTicks((long) (hours * 3_600_000 / GameWorld.TICK_MILLIS));
+    }
+
+    /**
+     * Runs the simulation for a number of ticks.
+     * @param ticks Ticks to run
+     */
+    public void runTicks(long ticks) {
+        for (long i = 0; i < ticks; i++) {
+            world.tick();
+        }
+    }
+
+    /**
+     * Counts the events that make up the summary.
+     * @param event The event
+     */
+    @Override
+    public void onEvent(GameEvent event) {
+        switch (event.getType()) {
+            case CUSTOMER_PAID:
+                customersPaid++;
+                break;
+            case CUSTOMER_LEFT:
+                customersLeft++;
+                break;
+            case INTERACTION_STARTED:
+                interactions++;
+                interactionIncomeCents += event.getValue();
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Gets the header of the CSV rows written by toCsvRow().
+     * @return The header
+     */
+    public static String csvHeader() {
+        return "hours,money,reputation,customers_spawned,customers_paid,customers_left,interactions,interaction_income,waste";
+    }
+
+    /**
+     * Describes the outcome of the simulation as a CSV row matching csvHeader().
+     * @return The row
+     */
+    public String toCsvRow() {
+        return String.format(Locale.ROOT, "%.2f,%s,%.2f,%d,%d,%d,%d,%s,%d", world.getTime() / 3_600_000.0,
+                EconomyLedger.formatMoney(world.getLedger().getBalanceCents()), world.getReputation(),
+                world.getCustomersSpawned(), customersPaid, customersLeft, interactions,
+                EconomyLedger.formatMoney(interactionIncomeCents), world.getWasteList().size());
+    }
+
+    // Getters for the summary of the simulation.
+    public GameWorld getWorld() { return world; }
+    public long getCustomersPaid() { return customersPaid; }
+    public long getCustomersLeft() { return customersLeft; }
+    public long getInteractions() { return interactions; }
+    public long getInteractionIncomeCents() { return interactionIncomeCents; }
+}
@@ -1,7 +1,4 @@
 import java.awt.*;
-import java.io.File;
-import java.io.IOException;
-import javax.imageio.ImageIO;
 
 /**
  * The Item class represents an item in the game. Items can be furniture, food, or cats.
@@ -12,8 +9,9 @@ public class Item implements Comparable<Item> {
     private Color color;
     private int x, y;
     private int width, height;
-    private Image image;
+    private Sprite image;
     private int price;
+    private boolean imageLoaded;
 
     /**
      * Constructor
@@ -32,107 +30,104 @@ public class Item implements Comparable<Item> {
         this.width = 50;
         this.height = 50;
         this.price = price;
-        loadImage();
     }
 
     /**
-     * Loads the image for the item based on its type.
+     * Loads the image for the item based on its type. This is done on the first render rather than in the constructor,
+     * so catalog entries and items in a headless simulation never decode images.
      */
     private void loadImage() {
-        try {
-            switch (type) {
-                case "Table":
-                    image = ImageIO.read(new File("Table.png"));
-                    break;
-                case "Left Chair":
-                    image = ImageIO.read(new File("Left Chair.png"));
-                    break;
-                case "Right Chair":
-                    image = ImageIO.read(new File("Right Chair.png"));
-                    break;
-                case "Sofa":
-                    image = ImageIO.read(new File("Sofa.png"));
-                    break;
-                case "Cat Tree":
-                    image = ImageIO.read(new File("Cat Tree.png"));
-                    break;
-                case "Cat Litter Box":
-                    image = ImageIO.read(new File("Cat Litter Box.png"));
-                    break;
-                case "Cat Food":
-                    image = ImageIO.read(new File("Cat Food.png"));
-                    break;
-                case "Cat Can":
-                    image = ImageIO.read(new File("Cat Can.png"));
-                    break;
-                case "Cat Toy 1":
-                    image = ImageIO.read(new File("Cat Toy 1.png"));
-                    break;
-                case "Cat Toy 2":
-                    image = ImageIO.read(new File("Cat Toy 2.png"));
-                    break;
-                case "Cat Comb":
-                    image = ImageIO.read(new File("Cat Comb.png"));
-                    break;
-                case "Coffee Machine":
-                    image = ImageIO.read(new File("Coffee Machine.png"));
-                    break;
-                case "Ice Cream Machine":
-                    image = ImageIO.read(new File("Ice Cream Machine.png"));
-                    break;
-                case "Cake":
-                    image = ImageIO.read(new File("Cake.png"));
-                    break;
-                case "Bombay Cat":
-                    image = ImageIO.read(new File("Bombay Cat.png"));
-                    break;
-                case "Orange Cat":
-                    image  = ImageIO.read(new File("Orange Cat.png"));
-                    break;
-                case "Tabby Cat":
-                    image = ImageIO.read(new File("Tabby Cat.png"));
-                    break;
-                case "White Cat":
-                    image = ImageIO.read(new File("White Cat.png"));
-                    break;
-                case "British Shorthair Cat":
-                    image = ImageIO.read(new File("British Shorthair Cat.png"));
-                    break;
-                case "Maine Coon Cat":
-                    image = ImageIO.read(new File("Maine Coon Cat.png"));
-                    break;
-                case "Ragdoll Cat":
-                    image = ImageIO.read(new File("Ragdoll Cat.png"));
-                    break;
-                case "American Shorthair Cat":
-                    image = ImageIO.read(new File("American Shorthair Cat.png"));
-                    break;
-                case "Siamese Cat":
-                    image = ImageIO.read(new File("Siamese Cat.png"));
-                    break;
-                case "Calico Cat":
-                    image = ImageIO.read(new File("Calico Cat.png"));
-                    break;
-                case "Li Hua Cat":
-                    image = ImageIO.read(new File("Li Hua Cat.png"));
-                    break;
-                case "Russian Blue Cat":
-                    image = ImageIO.read(new File("Russian Blue Cat.png"));
-                    break;
-                case "Balinese Cat":
-                    image = ImageIO.read(new File("Balinese Cat.png"));
-                    break;
-                case "Persian Cat":
-                    image = ImageIO.read(new File("Persian Cat.png"));
-                    break;
-                case "RagaMuffin Cat":
-                    image = ImageIO.read(new File("RagaMuffin Cat.png"));
-                    break;
-                default:
-                    image = null; // If no matching type, set image to null
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
+        imageLoaded = true;
+        switch (type) {
+            case "Table":
+                image = AssetCache.getSprite("Table.png", width, height);
+                break;
+            case "Left Chair":
+                image = AssetCache.getSprite("Left Chair.png", width, height);
+                break;
+            case "Right Chair":
+                image = AssetCache.getSprite("Right Chair.png", width, height);
+                break;
+            case "Sofa":
+                image = AssetCache.getSprite("Sofa.png", width, height);
+                break;
+            case "Cat Tree":
+                image = AssetCache.getSprite("Cat Tree.png", width, height);
+                break;
+            case "Cat Litter Box":
+                image = AssetCache.getSprite("Cat Litter Box.png", width, height);
+                break;
+            case "Cat Food":
+                image = AssetCache.getSprite("Cat Food.png", width, height);
+                break;
+            case "Cat Can":
+                image = AssetCache.getSprite("Cat Can.png", width, height);
+                break;
+            case "Cat Toy 1":
+                image = AssetCache.getSprite("Cat Toy 1.png", width, height);
+                break;
+            case "Cat Toy 2":
+                image = AssetCache.getSprite("Cat Toy 2.png", width, height);
+                break;
+            case "Cat Comb":
+                image = AssetCache.getSprite("Cat Comb.png", width, height);
+                break;
+            case "Coffee Machine":
+                image = AssetCache.getSprite("Coffee Machine.png", width, height);
+                break;
+            case "Ice Cream Machine":
+                image = AssetCache.getSprite("Ice Cream Machine.png", width, height);
+                break;
+            case "Cake":
+                image = AssetCache.getSprite("Cake.png", width, height);
+                break;
+            case "Bombay Cat":
+                image = AssetCache.getSprite("Bombay Cat.png", width, height);
+                break;
+            case "Orange Cat":
+                image = AssetCache.getSprite("Orange Cat.png", width, height);
+                break;
+            case "Tabby Cat":
+                image = AssetCache.getSprite("Tabby Cat.png", width, height);
+                break;
+            case "White Cat":
+                image = AssetCache.getSprite("White Cat.png", width, height);
+                break;
+            case "British Shorthair Cat":
+                image = AssetCache.getSprite("British Shorthair Cat.png", width, height);
+                break;
+            case "Maine Coon Cat":
+                image = AssetCache.getSprite("Maine Coon Cat.png", width, height);
+                break;
+            case "Ragdoll Cat":
+                image = AssetCache.getSprite("Ragdoll Cat.png", width, height);
+                break;
+            case "American Shorthair Cat":
+                image = AssetCache.getSprite("American Shorthair Cat.png", width, height);
+                break;
+            case "Siamese Cat":
+                image = AssetCache.getSprite("Siamese Cat.png", width, height);
+                break;
+            case "Calico Cat":
+                image = AssetCache.getSprite("Calico Cat.png", width, height);
+                break;
+            case "Li Hua Cat":
+                image = AssetCache.getSprite("Li Hua Cat.png", width, height);
+                break;
+            case "Russian Blue Cat":
+                image = AssetCache.getSprite("Russian Blue Cat.png", width, height);
+                break;
+            case "Balinese Cat":
+                image = AssetCache.getSprite("Balinese Cat.png", width, height);
+                break;
+            case "Persian Cat":
+                image = AssetCache.getSprite("Persian Cat.png", width, height);
+                break;
+            case "RagaMuffin Cat":
+                image = AssetCache.getSprite("RagaMuffin Cat.png", width, height);
+                break;
+            default:
+                image = null; // If no matching type, set image to null
         }
     }
 
@@ -142,9 +137,11 @@ public class Item implements Comparable<Item> {
      * @param g Graphics object used for drawing
      */
     public void render(Graphics g) {
-        if (image != null) {
-            g.drawImage(image, x, y, width, height, null);
-        } else {
+        if (!imageLoaded) {
+            loadImage();
+        }
+
+        if (image == null || !image.draw(g, x, y)) {
             g.setColor(color);
             g.fillRect(x, y, width, height); // Placeholder
         }
@@ -0,0 +1,304 @@
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.*;
+
+/**
+ * The LayoutOptimizer class searches for the item layout that earns the most money or reputation per hour for a given
+ * budget, using simulated annealing. Several annealing chains run in parallel, each starting from its own random layout
+ * and repeatedly trying a small change: moving an item, swapping it for another catalog item, buying one more or
+ * selling one. A change is kept if it scores better, and sometimes even if it scores worse, less often as the search
+ * cools down.
+ * A layout is scored by running headless simulations of it for a few simulated hours with a fixed set of seeds, so two
+ * layouts are always compared on the same customers. The chains run in rounds and only meet between rounds, where the
+ * best layout is updated and progress is reported, so the same settings always find the same layout whatever the number
+ * of cores. The search can be cancelled from any thread and then returns the best layout found so far.
+ * Usage: java LayoutOptimizer [--budget 2000] [--objective money|reputation] [--hours 0.5] [--seeds 2] [--chains 8]
+ *        [--iterations 200] [--seed 1]
+ */
+public class LayoutOptimizer {
+    private static final int ROUND_ITERATIONS = 10;
+    private static final double START_TEMPERATURE = 0.05;
+    private static final double END_TEMPERATURE = 0.001;
+
+    /**
+     * What a layout is scored on.
+     */
+    public enum Objective { MONEY, REPUTATION }
+
+    /**
+     * The ProgressListener interface is told how the search is going after every round, on the thread running the
+     * search.
+     */
+    public interface ProgressListener {
+        /**
+         * Called after a round of the search.
+         * @param evaluated Number of layouts simulated so far
+         * @param total Number of layouts the whole search simulates
+         * @param bestScore Score of the best layout so far, per simulated hour
+         * @param best The best layout so far
+         */
+        void onProgress(long evaluated, long total, double bestScore, ShopLayout best);
+    }
+
+    private final int budget;
+    private final Objective objective;
+    private final double hours;
+    private final int seeds;
+    private final int chainCount;
+    private final int iterations;
+    private final long baseSeed;
+    private final ArrayList<Item> catalog = ShopCatalog.createItems();
+    private ProgressListener listener;
+    private volatile boolean cancelled;
+    private ShopLayout best;
+    private double bestScore = Double.NEGATIVE_INFINITY;
+    private long evaluated;
+
+    /**
+     * The Chain class is one annealing chain: its random source and the layout it is currently at.
+     */
+    private class Chain implements Callable<Void> {
+        final Random random;
+        ShopLayout current;
+        double currentScore;
+        ShopLayout chainBest;
+        double chainBestScore;
+        int iteration;
+        int evaluated;
+        double scale;
+
+        Chain(long seed) {
+            random = new Random(seed);
+        }
+
+        /**
+         * Runs one round of the chain, starting it with a random layout on its first round.
+         * @return Nothing
+         */
+        @Override
+        public Void call() {
+            if (current == null) {
+                current = ShopLayout.random(random, budget, GameWorld.DEFAULT_WIDTH, GameWorld.DEFAULT_HEIGHT);
+                currentScore = evaluate(current);
+                evaluated++;
+                chainBest = current;
+                chainBestScore = currentScore;
+                // Temperatures are relative to the first score, so money and reputation anneal alike
+                scale = Math.max(1, Math.abs(currentScore));
+            }
+            for (int i = 0; i < ROUND_ITERATIONS && iteration < iterations && !cancelled; i++, iteration++) {
+                ShopLayout candidate = mutate(current, random);
+                double score = evaluate(candidate);
+                evaluated++;
+                double temperature = scale * START_TEMPERATURE * Math.pow(END_TEMPERATURE / START_TEMPERATURE, (double) iteration / iterations);
+                if (score >= currentScore || random.nextDouble() < Math.exp((score - currentScore) / temperature)) {
+                    current = candidate;
+                    currentScore = score;
+                    if (score > chainBestScore) {
+                        chainBest = candidate;
+                        chainBestScore = score;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Constructor.
+     * Initializes an optimizer with the given search settings.
+     * @param budget Money available for items
+     * @param objective What to maximize
+     * @param hours Simulated hours each layout is run for
+     * @param seeds Number of simulations each layout is scored with, on the same seeds for every layout
+     * @param chains Number of annealing chains
+     * @param iterations Changes tried by each chain
+     * @param baseSeed Seed for the whole search
+     */
+    public LayoutOptimizer(int budget, Objective objective, double hours, int seeds, int chains, int iterations, long baseSeed) {
+        this.budget = budget;
+        this.objective = objective;
+        this.hours = hours;
+        this.seeds = seeds;
+        this.chainCount = chains;
+        this.iterations = iterations;
+        this.baseSeed = baseSeed;
+    }
+
+    /**
+     * Runs the search on a pool with one thread per core.
+     * @return The best layout found
+     * @throws InterruptedException If the thread is interrupted while waiting for the chains
+     */
+    public ShopLayout optimize() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(chainCount, Runtime.getRuntime().availableProcessors()));
+        try {
+            return optimize(executor);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Runs the search, with the chains of each round run on an executor.
+     * @param executor The executor to run the chains on
+     * @return The best layout found, which is the best so far if the search was cancelled
+     * @throws InterruptedException If the thread is interrupted while waiting for the chains
+     */
+    public ShopLayout optimize(ExecutorService executor) throws InterruptedException {
+        Random seedRandom = new Random(baseSeed);
+        ArrayList<Chain> chains = new ArrayList<>();
+        for (int i = 0; i < chainCount; i++) {
+            chains.add(new Chain(seedRandom.nextLong()));
+        }
+        long total = (long) chainCount * (iterations + 1);
+        int rounds = (iterations + ROUND_ITERATIONS - 1) / ROUND_ITERATIONS;
+        for (int round = 0; round < Math.max(1, rounds) && !cancelled; round++) {
+            for (Future<Void> result : executor.invokeAll(chains)) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    e.getCause().printStackTrace();
+                }
+            }
+            evaluated = 0;
+            for (Chain chain : chains) {
+                evaluated += chain.evaluated;
+                if (chain.chainBest != null && chain.chainBestScore > bestScore) {
+                    best = chain.chainBest;
+                    bestScore = chain.chainBestScore;
+                }
+            }
+            if (listener != null) {
+                listener.onProgress(evaluated, total, bestScore, best);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Stops the search after the layouts being simulated now. Can be called from any thread.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Makes a small random change to a layout, keeping its cost within the budget.
+     * @param layout The layout, which is not changed
+     * @param random Source of randomness
+     * @return The changed copy
+     */
+    private ShopLayout mutate(ShopLayout layout, Random random) {
+        ShopLayout candidate = layout.copy();
+        ArrayList<Item> items = candidate.getItems();
+        int move = items.isEmpty() ? 2 : random.nextInt(4);
+        switch (move) {
+            case 0: { // Move an item to another tile
+                Item item = items.remove(random.nextInt(items.size()));
+                if (!candidate.placeRandomly(random, item)) {
+                    items.add(item);
+                }
+                break;
+            }
+            case 1: { // Swap an item for another catalog item on the same tile
+                int index = random.nextInt(items.size());
+                Item item = items.get(index);
+                Item choice = catalog.get(random.nextInt(catalog.size()));
+                if (candidate.getCost() - item.getPrice() + choice.getPrice() <= budget) {
+                    items.set(index, new Item(choice.getType(), choice.getColor(), item.getX(), item.getY(), choice.getPrice()));
+                }
+                break;
+            }
+            case 2: { // Buy another item
+                Item choice = catalog.get(random.nextInt(catalog.size()));
+                if (candidate.getCost() + choice.getPrice() <= budget) {
+                    candidate.placeRandomly(random, choice);
+                }
+                break;
+            }
+            default: // Sell an item
+                items.remove(random.nextInt(items.size()));
+                break;
+        }
+        return candidate;
+    }
+
+    /**
+     * Scores a layout by simulating it on each of the search's seeds.
+     * @param layout The layout
+     * @return The mean money (in dollars) or reputation gained per simulated hour
+     */
+    private double evaluate(ShopLayout layout) {
+        double total = 0;
+        for (int s = 0; s < seeds && !cancelled; s++) {
+            HeadlessSimulation simulation = new HeadlessSimulation(baseSeed * 1_000_003L + s, layout);
+            GameWorld world = simulation.getWorld();
+            long startMoney = world.getLedger().getBalanceCents();
+            double startReputation = world.getReputation();
+            simulation.runHours(hours);
+            total += objective == Objective.MONEY
+                    ? (world.getLedger().getBalanceCents() - startMoney) / (double) EconomyLedger.CENTS_PER_DOLLAR
+                    : world.getReputation() - startReputation;
+        }
+        return cancelled ? Double.NEGATIVE_INFINITY : total / seeds / hours;
+    }
+
+    // Getters and setters for the LayoutOptimizer class attributes.
+    public void setProgressListener(ProgressListener listener) { this.listener = listener; }
+    public boolean isCancelled() { return cancelled; }
+    public ShopLayout getBest() { return best; }
+    public double getBestScore() { return bestScore; }
+    public long getEvaluated() { return evaluated; }
+
+    public static void main(String[] args) throws InterruptedException {
+        System.setProperty("java.awt.headless", "true");
+        int budget = 2000;
+        Objective objective = Objective.MONEY;
+        double hours = 0.5;
+        int seeds = 2;
+        int chains = 8;
+        int iterations = 200;
+        long seed = 1;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--budget": budget = Integer.parseInt(args[i + 1]); break;
+                case "--objective": objective = Objective.valueOf(args[i + 1].toUpperCase(Locale.ROOT)); break;
+                case "--hours": hours = Double.parseDouble(args[i + 1]); break;
+                case "--seeds": seeds = Integer.parseInt(args[i + 1]); break;
+                case "--chains": chains = Integer.parseInt(args[i + 1]); break;
+                case "--iterations": iterations = Integer.parseInt(args[i + 1]); break;
+                case "--seed": seed = Long.parseLong(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        LayoutOptimizer optimizer = new LayoutOptimizer(budget, objective, hours, seeds, chains, iterations, seed);
+        long start = System.nanoTime();
+        optimizer.setProgressListener((evaluated, total, bestScore, best) -> System.out.printf(Locale.ROOT,
+                "%d/%d layouts, %.0f layouts/min, best %.2f per hour%n", evaluated, total,
+                evaluated * 60e9 / (System.nanoTime() - start), bestScore));
+        // Ctrl+C stops the search and still prints the best layout found
+        Thread main = Thread.currentThread();
+        Thread hook = new Thread(() -> {
+            optimizer.cancel();
+            try {
+                main.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Runtime.getRuntime().addShutdownHook(hook);
+        ShopLayout best = optimizer.optimize();
+        if (best == null) {
+            System.out.println("cancelled before any layout was scored");
+            return;
+        }
+        System.out.printf(Locale.ROOT, "best: %.2f %s per hour, %d items costing %d%n%s%n", optimizer.getBestScore(),
+                objective == Objective.MONEY ? "money" : "reputation", best.getItems().size(), best.getCost(), best);
+        if (!optimizer.isCancelled()) {
+            Runtime.getRuntime().removeShutdownHook(hook);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * The LoadingSplash class is the small window shown while the AssetLoader decodes the game's images. It only uses
+ * standard Swing components, so it appears straight away without waiting for any asset.
+ */
+@SuppressWarnings("serial")
+public class LoadingSplash extends JWindow implements AssetLoader.ProgressListener {
+    private JProgressBar progressBar;
+
+    /**
+     * Constructor.
+     * Initializes the splash window with a title and an empty progress bar.
+     */
+    public LoadingSplash() {
+        JPanel panel = new JPanel(new BorderLayout(0, 10));
+        panel.setBackground(new Color(255, 240, 245));
+        panel.setBorder(BorderFactory.createCompoundBorder(BorderFactory.createLineBorder(Color.PINK, 2),
+                BorderFactory.createEmptyBorder(20, 30, 20, 30)));
+
+        JLabel title = new JLabel("Cat Famirry", SwingConstants.CENTER);
+        title.setFont(new Font("SansSerif", Font.BOLD, 28));
+        panel.add(title, BorderLayout.CENTER);
+
+        progressBar = new JProgressBar();
+        progressBar.setStringPainted(true);
+        progressBar.setString("Loading...");
+        panel.add(progressBar, BorderLayout.SOUTH);
+
+        setContentPane(panel);
+        setSize(320, 130);
+        setLocationRelativeTo(null);
+    }
+
+    /**
+     * Shows how many assets have been loaded. Can be called from any thread.
+     * @param loaded Number of assets done
+     * @param total Number of assets to load
+     */
+    @Override
+    public void onProgress(int loaded, int total) {
+        SwingUtilities.invokeLater(() -> {
+            progressBar.setMaximum(total);
+            progressBar.setValue(Math.max(progressBar.getValue(), loaded));
+            progressBar.setString("Loading " + progressBar.getValue() + " / " + total);
+        });
+    }
+}
@@ -0,0 +1,409 @@
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * The PathPlanner class finds shortest paths on a TileGrid with D* Lite. The search runs backwards from the goal and
+ * its state (the g and rhs cost of every tile and the open queue) is kept between calls, so when the layout changes only
+ * the tiles next to the change are updated, and the search only does the work needed to repair the costs that changed.
+ * Planning again to the same goal from a new position reuses the search as well. Each customer owns a planner for the
+ * room they are in.
+ * The per-tile state of a search lives in a Search taken from the room's SearchPool while the planner has a goal, and
+ * is given back by release() once the customer has arrived, so only customers on their way somewhere hold any state
+ * the size of the grid. Tiles are stamped with the generation of the search that last wrote them, so starting a new
+ * search does not clear the arrays: a tile with an old stamp simply counts as unvisited.
+ */
+public class PathPlanner {
+    private static final int INF = 1 << 28;
+
+    /**
+     * The Search class is the per-tile state of one D* Lite search.
+     */
+    private static class Search {
+        final int[] g, rhs;
+        final int[] key1, key2;
+        final int[] heap, heapPos;
+        final int[] stamp;
+        int generation;
+
+        Search(int tiles) {
+            g = new int[tiles];
+            rhs = new int[tiles];
+            key1 = new int[tiles];
+            key2 = new int[tiles];
+            heap = new int[tiles];
+            heapPos = new int[tiles];
+            stamp = new int[tiles];
+        }
+    }
+
+    /**
+     * The SearchPool class keeps the searches of the planners of one room that have no goal, so they can be reused by
+     * the next planner that needs one. A pool must only be used from the thread that ticks its room.
+     */
+    public static class SearchPool {
+        private final TileGrid grid;
+        private final ArrayDeque<Search> free = new ArrayDeque<>();
+
+        /**
+         * Constructor.
+         * Initializes an empty pool for the given grid.
+         * @param grid The grid of the room
+         */
+        public SearchPool(TileGrid grid) {
+            this.grid = grid;
+        }
+
+        Search acquire() {
+            Search search = free.poll();
+            return search != null ? search : new Search(grid.getTileCount());
+        }
+
+        void release(Search search) {
+            free.push(search);
+        }
+
+        // Getters for the SearchPool class attributes.
+        public TileGrid getGrid() { return grid; }
+        public int getFreeCount() { return free.size(); }
+    }
+
+    private final TileGrid grid;
+    private final SearchPool pool;
+    private final int columns;
+    private final int tiles;
+    private Search search;
+    private int[] g, rhs;
+    private int[] key1, key2;
+    private int[] heap, heapPos;
+    private final int[] neighbours = new int[4];
+    private final int[] lookahead = new int[4];
+    private int heapSize;
+    private int start = -1, goal = -1;
+    private int km;
+
+    /**
+     * Constructor.
+     * Initializes a planner without a goal that takes its searches from a room's pool.
+     * @param pool The pool of the room to plan in
+     */
+    public PathPlanner(SearchPool pool) {
+        this.pool = pool;
+        this.grid = pool.getGrid();
+        this.columns = grid.getColumns();
+        this.tiles = grid.getTileCount();
+    }
+
+    /**
+     * Plans from a tile to a goal. If the goal is the one planned to before, the previous search is reused.
+     * @param from The start tile
+     * @param to The goal tile
+     * @return Number of tiles expanded
+     */
+    public int plan(int from, int to) {
+        if (from < 0 || to < 0) {
+            release();
+            return 0;
+        }
+        if (to != goal) {
+            reset(from, to);
+        } else {
+            moveStart(from);
+        }
+        return computeShortestPath();
+    }
+
+    /**
+     * Tells the planner that a tile became walkable or blocked. Only the costs of moving into the tile change, so only
+     * its neighbours are updated; the search itself is repaired by the next plan() or repair().
+     * @param tile The tile that changed
+     */
+    public void tileChanged(int tile) {
+        if (goal < 0) return;
+        int count = neighbours(tile);
+        for (int i = 0; i < count; i++) {
+            updateVertex(neighbours[i]);
+        }
+    }
+
+    /**
+     * Repairs the search after layout changes for a start that may have moved along the path.
+     * @param from The current tile
+     * @return Number of tiles expanded, which is 0 if the changes did not affect the path
+     */
+    public int repair(int from) {
+        if (goal < 0 || from < 0) return 0;
+        moveStart(from);
+        return computeShortestPath();
+    }
+
+    /**
+     * Forgets the goal and gives the search back to the pool. A planner without a goal holds no per-tile state.
+     */
+    public void release() {
+        if (search != null) {
+            pool.release(search);
+            search = null;
+            g = rhs = key1 = key2 = heap = heapPos = null;
+        }
+        goal = -1;
+    }
+
+    /**
+     * Writes the current shortest path into a TilePath by following the lowest costs from the start to the goal. The
+     * costs already lead forwards from the start, so the path is written in walking order with no reversing.
+     * @param path The path to fill, which is cleared first; it starts at the start, and stays empty if the goal cannot
+     *             be reached
+     */
+    public void extractPath(TilePath path) {
+        path.clear();
+        if (goal < 0 || cost(start) >= INF) {
+            return;
+        }
+        int current = start;
+        path.add(current);
+        for (int steps = 0; current != goal && steps < tiles; steps++) {
+            int best = -1;
+            int count = neighbours(current);
+            for (int i = 0; i < count; i++) {
+                int next = neighbours[i];
+                if (grid.isWalkable(next) && (best < 0 || cost(next) < cost(best))) {
+                    best = next;
+                }
+            }
+            if (best < 0 || cost(best) >= INF) {
+                path.clear();
+                return;
+            }
+            current = best;
+            path.add(current);
+        }
+    }
+
+    /**
+     * Starts a new search towards a goal. Moving on to the next generation makes every tile unvisited without touching
+     * the arrays.
+     * @param from The start tile
+     * @param to The goal tile
+     */
+    private void reset(int from, int to) {
+        if (search == null) {
+            search = pool.acquire();
+            g = search.g;
+            rhs = search.rhs;
+            key1 = search.key1;
+            key2 = search.key2;
+            heap = search.heap;
+            heapPos = search.heapPos;
+        }
+        if (++search.generation == 0) {
+            // The stamps wrapped around: clear them once so no tile looks current
+            Arrays.fill(search.stamp, 0);
+            search.generation = 1;
+        }
+        heapSize = 0;
+        km = 0;
+        start = from;
+        goal = to;
+        touch(goal);
+        rhs[goal] = 0;
+        push(goal);
+    }
+
+    /**
+     * Moves the start, raising the key modifier by the distance moved so the keys already in the queue stay valid.
+     * @param from The new start tile
+     */
+    private void moveStart(int from) {
+        km += heuristic(start, from);
+        start = from;
+    }
+
+    /**
+     * Expands tiles until the cost of the start is correct.
+     * @return Number of tiles expanded
+     */
+    private int computeShortestPath() {
+        touch(start);
+        int expanded = 0;
+        while (heapSize > 0) {
+            int startKey1 = Math.min(g[start], rhs[start]) + km;
+            int startKey2 = Math.min(g[start], rhs[start]);
+            int top = heap[0];
+            boolean topBeforeStart = key1[top] < startKey1 || (key1[top] == startKey1 && key2[top] < startKey2);
+            if (!topBeforeStart && rhs[start] == g[start]) {
+                break;
+            }
+            expanded++;
+            int oldKey1 = key1[top], oldKey2 = key2[top];
+            setKey(top);
+            if (oldKey1 < key1[top] || (oldKey1 == key1[top] && oldKey2 < key2[top])) {
+                siftDown(heapPos[top]);
+            } else if (g[top] > rhs[top]) {
+                g[top] = rhs[top];
+                remove(top);
+                int count = neighbours(top);
+                for (int i = 0; i < count; i++) {
+                    updateVertex(neighbours[i]);
+                }
+            } else {
+                g[top] = INF;
+                updateVertex(top);
+                int count = neighbours(top);
+                for (int i = 0; i < count; i++) {
+                    updateVertex(neighbours[i]);
+                }
+            }
+        }
+        return expanded;
+    }
+
+    /**
+     * Recomputes the one-step lookahead cost of a tile and puts it in the queue if it is inconsistent.
+     * @param tile The tile
+     */
+    private void updateVertex(int tile) {
+        touch(tile);
+        if (tile != goal) {
+            int best = INF;
+            int count = neighbours(tile, lookahead);
+            for (int i = 0; i < count; i++) {
+                int next = lookahead[i];
+                if (grid.isWalkable(next) && cost(next) + 1 < best) {
+                    best = cost(next) + 1;
+                }
+            }
+            rhs[tile] = best;
+        }
+        if (heapPos[tile] >= 0) {
+            remove(tile);
+        }
+        if (g[tile] != rhs[tile]) {
+            push(tile);
+        }
+    }
+
+    /**
+     * Lists the tiles next to a tile that are below the menu bar, into the shared neighbour array.
+     * @param tile The tile
+     * @return Number of neighbours
+     */
+    private int neighbours(int tile) {
+        return neighbours(tile, neighbours);
+    }
+
+    /**
+     * Lists the tiles next to a tile that are below the menu bar.
+     * @param tile The tile
+     * @param out Array of at least four entries to write the neighbours to
+     * @return Number of neighbours
+     */
+    private int neighbours(int tile, int[] out) {
+        int count = 0;
+        int column = tile % columns;
+        if (column + 1 < columns) out[count++] = tile + 1;
+        if (column > 0) out[count++] = tile - 1;
+        if (tile + columns < tiles) out[count++] = tile + columns;
+        if (tile - columns >= columns) out[count++] = tile - columns;
+        return count;
+    }
+
+    /**
+     * Makes a tile part of the current search, setting its state to unvisited if it was last written by an older one.
+     * @param tile The tile
+     */
+    private void touch(int tile) {
+        if (search.stamp[tile] != search.generation) {
+            search.stamp[tile] = search.generation;
+            g[tile] = INF;
+            rhs[tile] = INF;
+            heapPos[tile] = -1;
+        }
+    }
+
+    /**
+     * Gets the g cost of a tile in the current search without touching it.
+     * @param tile The tile
+     * @return The cost, or INF if the search has not visited the tile
+     */
+    private int cost(int tile) {
+        return search.stamp[tile] == search.generation ? g[tile] : INF;
+    }
+
+    /**
+     * Gets the Manhattan distance between two tiles.
+     * @param a One tile
+     * @param b The other tile
+     * @return The distance in tiles
+     */
+    private int heuristic(int a, int b) {
+        return Math.abs(a % columns - b % columns) + Math.abs(a / columns - b / columns);
+    }
+
+    /**
+     * Sets the queue key of a tile from its costs.
+     * @param tile The tile
+     */
+    private void setKey(int tile) {
+        int cost = Math.min(g[tile], rhs[tile]);
+        key1[tile] = cost + heuristic(start, tile) + km;
+        key2[tile] = cost;
+    }
+
+    // Indexed binary heap ordered by (key1, key2), so a tile can be found and removed without a search.
+
+    private void push(int tile) {
+        setKey(tile);
+        heap[heapSize] = tile;
+        heapPos[tile] = heapSize;
+        siftUp(heapSize++);
+    }
+
+    private void remove(int tile) {
+        int position = heapPos[tile];
+        heapPos[tile] = -1;
+        int last = heap[--heapSize];
+        if (position < heapSize) {
+            heap[position] = last;
+            heapPos[last] = position;
+            siftUp(position);
+            siftDown(heapPos[last]);
+        }
+    }
+
+    private boolean less(int a, int b) {
+        return key1[a] < key1[b] || (key1[a] == key1[b] && (key2[a] < key2[b] || (key2[a] == key2[b] && a < b)));
+    }
+
+    private void siftUp(int position) {
+        int tile = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >> 1;
+            if (!less(tile, heap[parent])) break;
+            heap[position] = heap[parent];
+            heapPos[heap[position]] = position;
+            position = parent;
+        }
+        heap[position] = tile;
+        heapPos[tile] = position;
+    }
+
+    private void siftDown(int position) {
+        int tile = heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= heapSize) break;
+            if (child + 1 < heapSize && less(heap[child + 1], heap[child])) child++;
+            if (!less(heap[child], tile)) break;
+            heap[position] = heap[child];
+            heapPos[heap[position]] = position;
+            position = child;
+        }
+        heap[position] = tile;
+        heapPos[tile] = position;
+    }
+
+    // Getters for the PathPlanner class attributes.
+    public TileGrid getGrid() { return grid; }
+    public int getGoal() { return goal; }
+    public boolean hasSearch() { return search != null; }
+}
@@ -0,0 +1,213 @@
+import java.awt.*;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The PerformanceOverlay class draws live performance numbers over the game: FPS, a graph of recent frame times,
+ * p50/p99/max of update and paint times, GC activity and how each frame's time is split between pathfinding, customer
+ * updates and rendering of items, customers and waste, and the level of the QualityGovernor if there is one. Samples
+ * go into fixed-size histograms and arrays, so recording allocates nothing; the numbers shown are from the last
+ * complete one-second window.
+ */
+public class PerformanceOverlay {
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+    private static final int GRAPH_SIZE = 120;
+    private static final long GRAPH_SCALE_NANOS = 50_000_000L; // Top of the graph is 50 ms
+
+    public static final int SLICE_PATHFINDING = 0;
+    public static final int SLICE_CUSTOMERS = 1;
+    public static final int SLICE_ITEMS = 2;
+    public static final int SLICE_CUSTOMER_RENDER = 3;
+    public static final int SLICE_WASTE = 4;
+    private static final String[] SLICE_NAMES = {"Pathfinding", "Customer update", "Render items", "Render customers", "Render waste"};
+
+    private static final Font FONT = new Font(Font.MONOSPACED, Font.PLAIN, 11);
+    private static final Color BACKGROUND = new Color(0, 0, 0, 170);
+    private static final Color BUDGET_LINE = new Color(255, 255, 255, 80);
+
+    private boolean visible;
+    private QualityGovernor governor;
+
+    // Current window, and the last complete one that is shown
+    private LatencyHistogram updateTimes = new LatencyHistogram();
+    private LatencyHistogram paintTimes = new LatencyHistogram();
+    private LatencyHistogram shownUpdateTimes = new LatencyHistogram();
+    private LatencyHistogram shownPaintTimes = new LatencyHistogram();
+    private long[] sliceNanos = new long[SLICE_NAMES.length];
+    private long[] shownSliceNanos = new long[SLICE_NAMES.length];
+    private int frames;
+    private int shownFrames;
+    private long windowStart = System.nanoTime();
+
+    private final long[] frameTimes = new long[GRAPH_SIZE];
+    private int frameTimeIndex;
+    private long lastFrame;
+
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private long lastGcCount = -1, lastGcMillis;
+    private long shownGcCount, shownGcMillis;
+    private long lastPathNanos = -1;
+
+    /**
+     * Shows or hides the overlay.
+     */
+    public void toggle() {
+        visible = !visible;
+    }
+
+    /**
+     * Checks if the overlay is shown.
+     * @return True if the overlay is shown
+     */
+    public boolean isVisible() {
+        return visible;
+    }
+
+    /**
+     * Records how long one simulation update took. Time spent in pathfinding during the update is taken from GameMetrics
+     * and counted separately from the rest of the customer update.
+     * @param nanos The duration of the update in nanoseconds
+     */
+    public void recordUpdate(long nanos) {
+        updateTimes.record(nanos);
+        long pathNanos = GameMetrics.get().getPathNanos();
+        long pathDelta = lastPathNanos < 0 ? 0 : Math.min(pathNanos - lastPathNanos, nanos);
+        lastPathNanos = pathNanos;
+        sliceNanos[SLICE_PATHFINDING] += pathDelta;
+        sliceNanos[SLICE_CUSTOMERS] += nanos - pathDelta;
+    }
+
+    /**
+     * Records the time spent in one subsystem during the current frame.
+     * @param slice One of the SLICE constants
+     * @param nanos The time in nanoseconds
+     */
+    public void recordSlice(int slice, long nanos) {
+        sliceNanos[slice] += nanos;
+    }
+
+    /**
+     * Records how long one paint took and ends the frame.
+     * @param nanos The duration of the paint in nanoseconds
+     */
+    public void recordPaint(long nanos) {
+        paintTimes.record(nanos);
+        long now = System.nanoTime();
+        if (lastFrame != 0) {
+            frameTimes[frameTimeIndex] = now - lastFrame;
+            frameTimeIndex = (frameTimeIndex + 1) % GRAPH_SIZE;
+        }
+        lastFrame = now;
+        frames++;
+
+        if (now - windowStart >= WINDOW_NANOS) {
+            endWindow(now);
+        }
+    }
+
+    /**
+     * Ends the current window: the histograms and counters just filled become the ones shown, and the old shown ones
+     * are cleared and reused for the next window.
+     * @param now The current time in nanoseconds
+     */
+    private void endWindow(long now) {
+        LatencyHistogram swap = shownUpdateTimes;
+        shownUpdateTimes = updateTimes;
+        updateTimes = swap;
+        updateTimes.reset();
+
+        swap = shownPaintTimes;
+        shownPaintTimes = paintTimes;
+        paintTimes = swap;
+        paintTimes.reset();
+
+        long[] swapSlices = shownSliceNanos;
+        shownSliceNanos = sliceNanos;
+        sliceNanos = swapSlices;
+        Arrays.fill(sliceNanos, 0);
+
+        shownFrames = (int) Math.round(frames * 1e9 / (now - windowStart));
+        frames = 0;
+        windowStart = now;
+
+        long gcCount = 0, gcMillis = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            gcCount += Math.max(0, collector.getCollectionCount());
+            gcMillis += Math.max(0, collector.getCollectionTime());
+        }
+        if (lastGcCount >= 0) {
+            shownGcCount = gcCount - lastGcCount;
+            shownGcMillis = gcMillis - lastGcMillis;
+        }
+        lastGcCount = gcCount;
+        lastGcMillis = gcMillis;
+    }
+
+    /**
+     * Draws the overlay if it is shown.
+     * @param g Graphics object used for drawing
+     * @param x X position of the overlay
+     * @param y Y position of the overlay
+     */
+    public void render(Graphics g, int x, int y) {
+        if (!visible) return;
+
+        int width = 260, height = governor != null ? 214 : 200;
+        g.setColor(BACKGROUND);
+        g.fillRect(x, y, width, height);
+        g.setFont(FONT);
+        g.setColor(Color.WHITE);
+
+        int line = y + 14;
+        g.drawString("FPS " + shownFrames + "   GC " + shownGcCount + " (" + shownGcMillis + " ms)/s", x + 6, line);
+        line += 14;
+        g.drawString(formatTimes("Update", shownUpdateTimes), x + 6, line);
+        line += 14;
+        g.drawString(formatTimes("Paint ", shownPaintTimes), x + 6, line);
+        line += 14;
+
+        double frameCount = Math.max(1, shownFrames);
+        for (int i = 0; i < SLICE_NAMES.length; i++) {
+            g.drawString(String.format("%-16s %6.2f ms/frame", SLICE_NAMES[i], shownSliceNanos[i] / 1e6 / frameCount), x + 6, line);
+            line += 14;
+        }
+        if (governor != null) {
+            g.drawString(String.format("Quality %d/%d %s", governor.getLevel(), governor.getMaxLevel(), governor.getLevelDescription()), x + 6, line);
+            line += 14;
+        }
+
+        // Frame time graph, oldest on the left, with a line at 16.7 ms
+        int graphTop = line;
+        int graphHeight = y + height - 6 - graphTop;
+        int budgetY = graphTop + graphHeight - (int) (graphHeight * 16_666_667L / GRAPH_SCALE_NANOS);
+        g.setColor(BUDGET_LINE);
+        g.drawLine(x + 6, budgetY, x + 6 + GRAPH_SIZE * 2, budgetY);
+        for (int i = 0; i < GRAPH_SIZE; i++) {
+            long frameTime = frameTimes[(frameTimeIndex + i) % GRAPH_SIZE];
+            int barHeight = (int) Math.min(graphHeight, graphHeight * frameTime / GRAPH_SCALE_NANOS);
+            g.setColor(frameTime > 33_333_333L ? Color.RED : frameTime > 16_666_667L ? Color.YELLOW : Color.GREEN);
+            g.fillRect(x + 6 + i * 2, graphTop + graphHeight - barHeight, 2, barHeight);
+        }
+    }
+
+    /**
+     * Sets the governor whose level is shown.
+     * @param governor The governor, or null to show none
+     */
+    public void setGovernor(QualityGovernor governor) {
+        this.governor = governor;
+    }
+
+    /**
+     * Formats the percentiles of a histogram in milliseconds.
+     * @param label Label of the line
+     * @param histogram The histogram
+     * @return The formatted line
+     */
+    private static String formatTimes(String label, LatencyHistogram histogram) {
+        return String.format("%s p50 %5.2f p99 %5.2f max %5.2f", label, histogram.getPercentile(50) / 1e6,
+                histogram.getPercentile(99) / 1e6, histogram.getMax() / 1e6);
+    }
+}
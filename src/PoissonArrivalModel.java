@@ -0,0 +1,67 @@
+import java.util.Random;
+
+/**
+ * The PoissonArrivalModel class lets customers arrive as a Poisson process whose rate grows with reputation and can
+ * follow a daily profile, for example a lunch rush. Inter-arrival times are drawn from the exponential distribution at
+ * the highest rate of the profile and thinned to the rate at the drawn time (Lewis and Shedler), which samples the
+ * non-homogeneous process exactly without stepping through time.
+ */
+public class PoissonArrivalModel implements ArrivalModel {
+    private static final long HOUR_MILLIS = 3_600_000L;
+
+    private final double arrivalsPerMinute;
+    private final double[] hourlyProfile;
+    private final double peakFactor;
+
+    /**
+     * Constructor.
+     * Initializes a model with the same rate at every hour.
+     * @param arrivalsPerMinute Arrivals per minute for every 1000 reputation
+     */
+    public PoissonArrivalModel(double arrivalsPerMinute) {
+        this(arrivalsPerMinute, new double[]{1});
+    }
+
+    /**
+     * Constructor.
+     * Initializes a model whose rate is scaled by a factor for each simulated hour. The profile repeats once all of
+     * its hours have passed, so 24 factors describe a day.
+     * @param arrivalsPerMinute Arrivals per minute for every 1000 reputation
+     * @param hourlyProfile Factor for each hour, none of them negative
+     */
+    public PoissonArrivalModel(double arrivalsPerMinute, double[] hourlyProfile) {
+        this.arrivalsPerMinute = arrivalsPerMinute;
+        this.hourlyProfile = hourlyProfile.clone();
+        double peak = 0;
+        for (double factor : hourlyProfile) {
+            if (factor < 0) throw new IllegalArgumentException("Negative hourly factor: " + factor);
+            peak = Math.max(peak, factor);
+        }
+        this.peakFactor = peak;
+    }
+
+    /**
+     * Draws the time until the next arrival by thinning arrivals at the peak rate. Without reputation, or with a
+     * profile of zeros, no one arrives and the model is asked again after one tick.
+     * @param time The simulated time in milliseconds
+     * @param reputationFixed The reputation of the shop, in hundredths
+     * @param random The world's source of randomness
+     * @return The delay in milliseconds
+     */
+    @Override
+    public long nextArrivalDelay(long time, long reputationFixed, Random random) {
+        double perMilli = arrivalsPerMinute * reputationFixed / (1000.0 * EconomyLedger.REPUTATION_SCALE) / 60_000.0;
+        double peakRate = perMilli * peakFactor;
+        if (peakRate <= 0) {
+            return GameWorld.TICK_MILLIS;
+        }
+        double t = time;
+        while (true) {
+            t += -Math.log(1 - random.nextDouble()) / peakRate;
+            double factor = hourlyProfile[(int) ((long) (t / HOUR_MILLIS) % hourlyProfile.length)];
+            if (random.nextDouble() * peakFactor < factor) {
+                return (long) (t - time);
+            }
+        }
+    }
+}
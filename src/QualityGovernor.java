@@ -0,0 +1,141 @@
+import java.util.Arrays;
+
+/**
+ * The QualityGovernor class holds the game's frame time within a budget by dropping visual detail, and in the end
+ * simulation rate, when frames take too long. It is given the update and paint time of every frame and looks at them
+ * in windows of WINDOW_FRAMES frames. When the 90th percentile of a window is over the budget it drops the next tier,
+ * in the order of the Tier constants; a tier is only brought back after RECOVER_WINDOWS windows in a row well under the
+ * budget, so the game does not flicker between two levels when it is close to the budget.
+ * The level is the number of tiers dropped, from 0 for full quality up to the number of tiers. It is changed on the
+ * thread that records frames and may be read from any thread.
+ */
+public class QualityGovernor {
+    private static final int WINDOW_FRAMES = 30;
+    private static final int RECOVER_WINDOWS = 4;
+    private static final double RECOVER_SHARE = 0.6; // Share of the budget a window must stay under to bring a tier back
+
+    /**
+     * The Tier enum lists what the governor drops, first to last.
+     */
+    public enum Tier {
+        GRID("no grid"),
+        OVERLAYS("no hearts or payments"),
+        LABELS("no satisfaction labels"),
+        INTERPOLATION("no interpolation"),
+        SIM_RATE("half simulation rate");
+
+        private final String description;
+
+        Tier(String description) {
+            this.description = description;
+        }
+
+        // Getters for the Tier enum attributes.
+        public String getDescription() { return description; }
+    }
+
+    private static final Tier[] TIERS = Tier.values();
+
+    private final long budgetNanos;
+    private final long[] window = new long[WINDOW_FRAMES];
+    private final long[] sorted = new long[WINDOW_FRAMES];
+    private int windowFrames;
+    private int windowsUnder;
+    private volatile int level;
+    private volatile long windowP90Nanos;
+    private volatile long levelChanges;
+
+    /**
+     * Constructor.
+     * Initializes a governor at full quality.
+     * @param budgetNanos Frame time budget in nanoseconds, for update and paint together; 0 or less never drops a tier
+     */
+    public QualityGovernor(long budgetNanos) {
+        this.budgetNanos = budgetNanos;
+    }
+
+    /**
+     * Records the time of one frame, and changes the level at the end of a window if the window asks for it.
+     * @param updateNanos Time spent updating the simulation in the frame
+     * @param paintNanos Time spent painting the frame
+     */
+    public void recordFrame(long updateNanos, long paintNanos) {
+        window[windowFrames++] = updateNanos + paintNanos;
+        if (windowFrames < WINDOW_FRAMES) return;
+        windowFrames = 0;
+
+        System.arraycopy(window, 0, sorted, 0, WINDOW_FRAMES);
+        Arrays.sort(sorted);
+        long p90 = sorted[WINDOW_FRAMES * 9 / 10];
+        windowP90Nanos = p90;
+        if (budgetNanos <= 0) return;
+
+        if (p90 > budgetNanos) {
+            windowsUnder = 0;
+            if (level < TIERS.length) {
+                setLevel(level + 1);
+            }
+        } else if (p90 < budgetNanos * RECOVER_SHARE && level > 0) {
+            if (++windowsUnder >= RECOVER_WINDOWS) {
+                windowsUnder = 0;
+                setLevel(level - 1);
+            }
+        } else {
+            windowsUnder = 0;
+        }
+    }
+
+    /**
+     * Forgets the frames of the current window, for example when frames are not comparable because the game runs
+     * faster than real time. The level is kept.
+     */
+    public void skipWindow() {
+        windowFrames = 0;
+    }
+
+    /**
+     * Changes the level.
+     * @param level The new level
+     */
+    private void setLevel(int level) {
+        this.level = level;
+        levelChanges++;
+    }
+
+    /**
+     * Checks if a tier is dropped at the current level.
+     * @param tier The tier
+     * @return True if the tier is dropped
+     */
+    public boolean isDropped(Tier tier) {
+        return level > tier.ordinal();
+    }
+
+    /**
+     * Gets a description of the current level.
+     * @return "full quality", or what the last dropped tier took away
+     */
+    public String getLevelDescription() {
+        int current = level;
+        return current == 0 ? "full quality" : TIERS[current - 1].getDescription();
+    }
+
+    /**
+     * Gets every tier in the order they are dropped.
+     * @return One description per tier, where the first is dropped at level 1
+     */
+    public static String[] getTierDescriptions() {
+        String[] descriptions = new String[TIERS.length];
+        for (int i = 0; i < TIERS.length; i++) {
+            descriptions[i] = (i + 1) + ": " + TIERS[i].getDescription();
+        }
+        return descriptions;
+    }
+
+    // Getters for the QualityGovernor class attributes.
+    public int getLevel() { return level; }
+    public int getMaxLevel() { return TIERS.length; }
+    public long getBudgetNanos() { return budgetNanos; }
+    public long getWindowP90Nanos() { return windowP90Nanos; }
+    public long getLevelChanges() { return levelChanges; }
+}
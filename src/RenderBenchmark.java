@@ -0,0 +1,223 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * The RenderBenchmark class measures what drawing costs, separately from the simulation. It renders items, customers,
+ * waste and the whole game screen (Driver.paintComponent) into an offscreen BufferedImage, and into a VolatileImage
+ * when the JVM has a display, for entity counts from 10 to 10,000. It also blits a sprite at several sizes, both
+ * pre-scaled and scaled while drawing, under different rendering hints. Each line reports frames per second and
+ * nanoseconds per sprite, so rendering choices can be compared on machines without a display.
+ * Usage: java RenderBenchmark [millisPerCase]
+ */
+public class RenderBenchmark {
+    private static final int WIDTH = GameWorld.DEFAULT_WIDTH;
+    private static final int HEIGHT = GameWorld.DEFAULT_HEIGHT;
+    private static final int[] COUNTS = {10, 100, 1000, 10000};
+    private static final int[] SPRITE_SIZES = {16, 32, 50, 100};
+
+    private final long millisPerCase;
+    private final Random random = new Random(1);
+
+    /**
+     * The Scene interface draws one frame of a benchmark case.
+     */
+    private interface Scene {
+        void draw(Graphics2D g);
+    }
+
+    /**
+     * Constructor.
+     * Initializes a benchmark that runs each case for the given time.
+     * @param millisPerCase Time to measure each case for, after warming it up
+     */
+    public RenderBenchmark(long millisPerCase) {
+        this.millisPerCase = millisPerCase;
+    }
+
+    /**
+     * Runs every case on every available target and prints the results.
+     */
+    public void run() {
+        System.out.printf("%-10s %-26s %6s %-10s %10s %12s%n", "target", "case", "count", "hints", "fps", "ns/sprite");
+        runTarget("buffered", new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB));
+        if (!GraphicsEnvironment.isHeadless()) {
+            GraphicsConfiguration config = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+            runTarget("volatile", config.createCompatibleVolatileImage(WIDTH, HEIGHT));
+        } else {
+            System.out.println("volatile   skipped: VolatileImage needs a display");
+        }
+    }
+
+    /**
+     * Runs every case drawing into one image.
+     * @param target Name of the target for the report
+     * @param image The image to draw into
+     */
+    private void runTarget(String target, Image image) {
+        for (int count : COUNTS) {
+            ArrayList<Item> items = createItems(count);
+            measure(target, image, "Item.render", count, "default", g -> {
+                for (Item item : items) {
+                    item.render(g);
+                }
+            });
+            ArrayList<Customer> customers = createCustomers(createEmptyWorld(count), count);
+            measure(target, image, "Customer.render", count, "default", g -> {
+                for (Customer customer : customers) {
+                    customer.render(g);
+                }
+            });
+            ArrayList<Waste> wastes = createWaste(count);
+            measure(target, image, "Waste.render", count, "default", g -> {
+                for (Waste waste : wastes) {
+                    waste.render(g);
+                }
+            });
+            Driver driver = createDriver(count);
+            measure(target, image, "Driver.paintComponent", count * 3, "default", driver::paintComponent);
+        }
+
+        String[] hintNames = {"speed", "bilinear", "quality"};
+        Object[][] hints = {
+                {RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR, RenderingHints.VALUE_RENDER_SPEED},
+                {RenderingHints.VALUE_INTERPOLATION_BILINEAR, RenderingHints.VALUE_RENDER_DEFAULT},
+                {RenderingHints.VALUE_INTERPOLATION_BICUBIC, RenderingHints.VALUE_RENDER_QUALITY}};
+        BufferedImage source = AssetCache.getImage("Table.png");
+        for (int size : SPRITE_SIZES) {
+            BufferedImage sprite = AssetCache.getScaledImage("Table.png", size, size);
+            int[][] positions = createPositions(1000);
+            for (int h = 0; h < hints.length; h++) {
+                Object interpolation = hints[h][0];
+                Object rendering = hints[h][1];
+                measure(target, image, "pre-scaled " + size + "px", 1000, hintNames[h], g -> {
+                    g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+                    g.setRenderingHint(RenderingHints.KEY_RENDERING, rendering);
+                    for (int[] position : positions) {
+                        g.drawImage(sprite, position[0], position[1], null);
+                    }
+                });
+                if (source != null) {
+                    measure(target, image, "scaled on draw " + size + "px", 1000, hintNames[h], g -> {
+                        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+                        g.setRenderingHint(RenderingHints.KEY_RENDERING, rendering);
+                        for (int[] position : positions) {
+                            g.drawImage(source, position[0], position[1], size, size, null);
+                        }
+                    });
+                }
+            }
+        }
+    }
+
+    /**
+     * Draws a scene repeatedly, first to warm up and then for the measuring time, and prints the rate.
+     * @param target Name of the target
+     * @param image The image to draw into
+     * @param name Name of the case
+     * @param sprites Number of sprites drawn per frame
+     * @param hints Name of the rendering hints used
+     * @param scene The scene to draw
+     */
+    private void measure(String target, Image image, String name, int sprites, String hints, Scene scene) {
+        drawFrames(image, scene, System.nanoTime() + millisPerCase * 1_000_000L / 4);
+        long start = System.nanoTime();
+        long frames = drawFrames(image, scene, start + millisPerCase * 1_000_000L);
+        long nanos = System.nanoTime() - start;
+        System.out.printf(Locale.ROOT, "%-10s %-26s %6d %-10s %10.1f %12.1f%n", target, name, sprites, hints,
+                frames * 1e9 / nanos, (double) nanos / frames / sprites);
+    }
+
+    /**
+     * Draws frames until a deadline, clearing the image before each one like a real frame.
+     * @param image The image to draw into
+     * @param scene The scene to draw
+     * @param deadline System.nanoTime() to stop at
+     * @return Number of frames drawn
+     */
+    private long drawFrames(Image image, Scene scene, long deadline) {
+        long frames = 0;
+        do {
+            Graphics2D g = (Graphics2D) image.getGraphics();
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, WIDTH, HEIGHT);
+            scene.draw(g);
+            g.dispose();
+            if (image instanceof VolatileImage) {
+                Toolkit.getDefaultToolkit().sync(); // Flush the accelerated pipeline so frames are not just queued
+            }
+            frames++;
+        } while (System.nanoTime() < deadline);
+        return frames;
+    }
+
+    private int[][] createPositions(int count) {
+        int[][] positions = new int[count][];
+        for (int i = 0; i < count; i++) {
+            positions[i] = new int[]{random.nextInt(WIDTH - 50), GameWorld.TILE_SIZE + random.nextInt(HEIGHT - 100)};
+        }
+        return positions;
+    }
+
+    private ArrayList<Item> createItems(int count) {
+        ArrayList<Item> catalog = ShopCatalog.createItems();
+        ArrayList<Item> items = new ArrayList<>();
+        for (int[] position : createPositions(count)) {
+            Item type = catalog.get(random.nextInt(catalog.size()));
+            items.add(new Item(type.getType(), type.getColor(), position[0], position[1], type.getPrice()));
+        }
+        return items;
+    }
+
+    private GameWorld createEmptyWorld(int capacity) {
+        GameWorld world = new GameWorld(capacity);
+        world.setOpenToStreet(false);
+        world.setCustomerCapacity(capacity);
+        return world;
+    }
+
+    private ArrayList<Customer> createCustomers(GameWorld world, int count) {
+        ArrayList<Customer> customers = new ArrayList<>();
+        for (int[] position : createPositions(count)) {
+            world.spawnCustomer();
+            Customer customer = world.getCustomers().get(world.getCustomers().size() - 1);
+            customer.setX(position[0]);
+            customer.setY(position[1]);
+            customers.add(customer);
+        }
+        return customers;
+    }
+
+    private ArrayList<Waste> createWaste(int count) {
+        ArrayList<Waste> wastes = new ArrayList<>();
+        for (int[] position : createPositions(count)) {
+            wastes.add(new Waste(position[0], position[1]));
+        }
+        return wastes;
+    }
+
+    /**
+     * Creates a game screen showing a world with the given number of items, customers and pieces of waste.
+     * @param count Number of each kind of entity
+     * @return The Driver, ready to paint
+     */
+    private Driver createDriver(int count) {
+        GameWorld world = createEmptyWorld(count);
+        for (Item item : createItems(count)) {
+            world.placeItem(item.getType(), item.getColor(), item.getX(), item.getY(), item.getPrice());
+        }
+        createCustomers(world, count);
+        world.getWasteList().addAll(createWaste(count));
+        Driver driver = new Driver();
+        driver.setSize(WIDTH, HEIGHT);
+        driver.showWorld(world);
+        return driver;
+    }
+
+    public static void main(String[] args) {
+        new RenderBenchmark(args.length > 0 ? Long.parseLong(args[0]) : 500).run();
+    }
+}
@@ -0,0 +1,65 @@
+import java.io.*;
+
+/**
+ * The SessionRecorder class writes a game session to a text file so it can be reproduced by the SessionReplayer. A session
+ * is the seed of the GameWorld followed by every input, stamped with the number of ticks that had run when it happened:
+ * <pre>
+ * SEED 42
+ * TICK_MILLIS 16
+ * 120 PURCHASE 30 Table
+ * 121 SHOP_OPEN
+ * 121 PLACE 300 250 30 -256 Table
+ * 400 CLICK 312 260
+ * END 5000
+ * </pre>
+ * Item types may contain spaces, so they always come last on a line.
+ */
+public class SessionRecorder {
+    public static final String CLICK = "CLICK";
+    public static final String PICKUP = "PICKUP";
+    public static final String PLACE = "PLACE";
+    public static final String PURCHASE = "PURCHASE";
+    public static final String SHOP_OPEN = "SHOP_OPEN";
+    public static final String SHOP_CLOSE = "SHOP_CLOSE";
+    public static final String CAPACITY = "CAPACITY";
+    public static final String ARRIVAL_RATE = "ARRIVAL_RATE";
+
+    private PrintWriter writer;
+
+    /**
+     * Constructor.
+     * Opens the session file and writes its header.
+     * @param file The file to record to
+     * @param seed The seed of the recorded GameWorld
+     * @throws IOException If the file cannot be opened
+     */
+    public SessionRecorder(File file, long seed) throws IOException {
+        writer = new PrintWriter(new BufferedWriter(new FileWriter(file)), true);
+        writer.println("SEED " + seed);
+        writer.println("TICK_MILLIS " + GameWorld.TICK_MILLIS);
+    }
+
+    /**
+     * Records one input. Lines are flushed as they are written so a crash does not lose the session.
+     * @param tick Number of ticks that had run when the input happened
+     * @param type Type of the input
+     * @param args Arguments of the input, separated by spaces
+     */
+    public synchronized void record(long tick, String type, String args) {
+        if (writer != null) {
+            writer.println(args.isEmpty() ? tick + " " + type : tick + " " + type + " " + args);
+        }
+    }
+
+    /**
+     * Writes the end of the session and closes the file.
+     * @param tick Number of ticks that had run when the session ended
+     */
+    public synchronized void close(long tick) {
+        if (writer != null) {
+            writer.println("END " + tick);
+            writer.close();
+            writer = null;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+import java.awt.*;
+import java.io.*;
+import java.util.ArrayList;
+
+/**
+ * The SessionReplayer class reproduces a session written by the SessionRecorder. It rebuilds the GameWorld from the
+ * recorded seed and applies every input at the tick it was recorded at, running the ticks back to back without any
+ * rendering or waiting, so a session that took an hour to play replays in seconds.
+ * Usage: java SessionReplayer session.txt [extraTicks]
+ */
+public class SessionReplayer {
+    private long seed;
+    private long endTick = -1;
+    private ArrayList<String[]> inputs = new ArrayList<>();
+
+    /**
+     * Constructor.
+     * Reads a recorded session.
+     * @param file The session file
+     * @throws IOException If the file cannot be read or is not a session file
+     */
+    public SessionReplayer(File file) throws IOException {
+        boolean hasSeed = false;
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] parts = line.split(" ", 2);
+                if (parts[0].equals("SEED")) {
+                    seed = Long.parseLong(parts[1]);
+                    hasSeed = true;
+                } else if (parts[0].equals("TICK_MILLIS")) {
+                    if (Integer.parseInt(parts[1]) != GameWorld.TICK_MILLIS) {
+                        throw new IOException("Session was recorded with a tick of " + parts[1] + " ms");
+                    }
+                } else if (parts[0].equals("END")) {
+                    endTick = Long.parseLong(parts[1]);
+                } else {
+                    inputs.add(line.split(" ", 3));
+                }
+            }
+        }
+        if (!hasSeed) {
+            throw new IOException("Missing SEED line in " + file);
+        }
+        if (endTick < 0) {
+            // The session was not closed cleanly, so run until the last input
+            endTick = inputs.isEmpty() ? 0 : Long.parseLong(inputs.get(inputs.size() - 1)[0]);
+        }
+    }
+
+    /**
+     * Replays the session.
+     * @param extraTicks Number of ticks to keep running after the recorded end
+     * @return The world in the state the session ended in
+     */
+    public GameWorld replay(long extraTicks) {
+        GameWorld world = new GameWorld(seed);
+        int next = 0;
+        long lastTick = endTick + extraTicks;
+        while (true) {
+            while (next < inputs.size() && Long.parseLong(inputs.get(next)[0]) <= world.getTickCount()) {
+                apply(world, inputs.get(next));
+                next++;
+            }
+            if (world.getTickCount() >= lastTick) break;
+            world.tick();
+        }
+        return world;
+    }
+
+    /**
+     * Applies one recorded input to the world.
+     * @param world The world being replayed
+     * @param input The input as {tick, type, args}
+     */
+    private void apply(GameWorld world, String[] input) {
+        String type = input[1];
+        String[] args = input.length > 2 ? input[2].split(" ", 5) : new String[0];
+        if (type.equals(SessionRecorder.CLICK)) {
+            world.clickAt(Integer.parseInt(args[0]), Integer.parseInt(args[1]));
+        } else if (type.equals(SessionRecorder.PICKUP)) {
+            world.pickUpItem(Integer.parseInt(args[0]), Integer.parseInt(args[1]));
+        } else if (type.equals(SessionRecorder.PLACE)) {
+            world.placeItem(args[4], new Color(Integer.parseInt(args[3]), true), Integer.parseInt(args[0]),
+                    Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+        } else if (type.equals(SessionRecorder.PURCHASE)) {
+            String[] purchase = input[2].split(" ", 2);
+            world.purchase(purchase[1], Integer.parseInt(purchase[0]));
+        } else if (type.equals(SessionRecorder.SHOP_OPEN)) {
+            world.setPaused(true);
+        } else if (type.equals(SessionRecorder.SHOP_CLOSE)) {
+            world.setPaused(false);
+        } else if (type.equals(SessionRecorder.CAPACITY)) {
+            world.setCustomerCapacity(Integer.parseInt(args[0]));
+        } else if (type.equals(SessionRecorder.ARRIVAL_RATE)) {
+            world.setArrivalRate(Double.parseDouble(args[0]));
+        } else {
+            throw new IllegalArgumentException("Unknown input: " + type);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java SessionReplayer session.txt [extraTicks]");
+            System.exit(1);
+        }
+        System.setProperty("java.awt.headless", "true");
+        SessionReplayer replayer = new SessionReplayer(new File(args[0]));
+        long extraTicks = args.length > 1 ? Long.parseLong(args[1]) : 0;
+
+        long start = System.nanoTime();
+        GameWorld world = replayer.replay(extraTicks);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println("Replayed " + world.getTickCount() + " ticks (" + world.getTime() / 1000 + " s of game time) in "
+                + String.format("%.2f", seconds) + " s");
+        System.out.println("Money: " + EconomyLedger.formatMoney(world.getLedger().getBalanceCents())
+                + ", reputation: " + world.getReputation()
+                + ", customers: " + world.getCustomers().size() + ", waste: " + world.getWasteList().size()
+                + ", items: " + world.getItems().size());
+    }
+}
@@ -13,8 +13,6 @@ public class Shop implements ActionListener {
     private JFrame shopFrame;
     private JTabbedPane tabbedPane;
     private Font sherryFont;
-    private double money;
-    private ArrayList<Item> items;
     private ArrayList<Item> shopItems;
     private Item selectedItem;
     private Driver driver;
@@ -29,16 +27,12 @@ public class Shop implements ActionListener {
 
     /**
      * Constructor.
-     * Initializes the shop with the given font, money, items, and driver.
+     * Initializes the shop with the given font and driver. Money is read from the driver's ledger when buying.
      * @param sherryFont Font used in the shop
-     * @param money Initial money available
-     * @param items List of items in the shop
      * @param driver Driver object controlling the game
      */
-    public Shop(Font sherryFont, double money, ArrayList<Item> items, Driver driver) {
+    public Shop(Font sherryFont, Driver driver) {
         this.sherryFont = sherryFont;
-        this.money = money;
-        this.items = items;
         this.driver = driver;
         this.shopItems = new ArrayList<>();
         this.shopItemsMap = new HashMap<>();
@@ -54,38 +48,9 @@ public class Shop implements ActionListener {
         shopFrame.setLocationRelativeTo(null);
         shopFrame.setResizable(false);
 
-        // Adding non-cat items
-        addItemToShop(new Item("Table", Color.YELLOW, 0, 0, 30));
-        addItemToShop(new Item("Left Chair", Color.YELLOW, 0, 0, 15));
-        addItemToShop(new Item("Right Chair", Color.YELLOW, 0, 0, 15));
-        addItemToShop(new Item("Sofa", Color.YELLOW, 0, 0, 50));
-        addItemToShop(new Item("Cat Tree", Color.YELLOW, 0, 0, 50));
-        addItemToShop(new Item("Cat Litter Box", Color.YELLOW, 0, 0, 30));
-        addItemToShop(new Item("Cat Food", Color.YELLOW, 0, 0, 40));
-        addItemToShop(new Item("Cat Can", Color.YELLOW, 0, 0, 60));
-        addItemToShop(new Item("Cat Toy 1", Color.YELLOW, 0, 0, 30));
-        addItemToShop(new Item("Cat Toy 2", Color.YELLOW, 0, 0, 30));
-        addItemToShop(new Item("Cat Comb", Color.YELLOW, 0, 0, 45));
-        addItemToShop(new Item("Cake", Color.YELLOW, 0, 0, 50));
-        addItemToShop(new Item("Coffee Machine", Color.YELLOW, 0, 0, 100));
-        addItemToShop(new Item("Ice Cream Machine", Color.YELLOW, 0, 0, 100));
-
-        // Adding cat items
-        addItemToShop(new Item("Bombay Cat", Color.ORANGE, 0, 0, 500));
-        addItemToShop(new Item("Orange Cat", Color.ORANGE, 0, 0, 300));
-        addItemToShop(new Item("Tabby Cat", Color.ORANGE, 0, 0, 600));
-        addItemToShop(new Item("White Cat", Color.ORANGE, 0, 0, 250));
-        addItemToShop(new Item("British Shorthair Cat", Color.ORANGE, 0, 0, 1000));
-        addItemToShop(new Item("Maine Coon Cat", Color.ORANGE, 0, 0, 1250));
-        addItemToShop(new Item("Ragdoll Cat", Color.ORANGE, 0, 0, 1250));
-        addItemToShop(new Item("American Shorthair Cat", Color.ORANGE, 0, 0, 300));
-        addItemToShop(new Item("Siamese Cat", Color.ORANGE, 0, 0, 600));
-        addItemToShop(new Item("Calico Cat", Color.ORANGE, 0, 0, 200));
-        addItemToShop(new Item("Li Hua Cat", Color.ORANGE, 0, 0, 400));
-        addItemToShop(new Item("Russian Blue Cat", Color.ORANGE, 0, 0, 800));
-        addItemToShop(new Item("Balinese Cat", Color.ORANGE, 0, 0, 100));
-        addItemToShop(new Item("Persian Cat", Color.ORANGE, 0, 0, 1000));
-        addItemToShop(new Item("RagaMuffin Cat", Color.ORANGE, 0, 0, 700));
+        for (Item item : ShopCatalog.createItems()) {
+            addItemToShop(item);
+        }
 
         tabbedPane = new JTabbedPane();
         tabbedPane.setFont(sherryFont);
@@ -253,10 +218,9 @@ public class Shop implements ActionListener {
         itemPanelInner.setBackground(Color.LIGHT_GRAY);
         itemPanelInner.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
-        String itemType = item.getType().toLowerCase();
-        ImageIcon rawIcon = new ImageIcon(itemType + ".png");
-        Image scaledImage = rawIcon.getImage().getScaledInstance(50, 50, Image.SCALE_SMOOTH);
-        JButton imageButton = new JButton(new ImageIcon(scaledImage));
+        // Icons are scaled once and cached, so sorting and searching do not decode and scale them again
+        Image scaledImage = AssetCache.getScaledImage(item.getType() + ".png", 50, 50);
+        JButton imageButton = new JButton(scaledImage != null ? new ImageIcon(scaledImage) : null);
         imageButton.setActionCommand(item.getType());
         imageButton.addActionListener(this);
         imageButton.setAlignmentX(Component.CENTER_ALIGNMENT);
@@ -300,12 +264,7 @@ public class Shop implements ActionListener {
     private void handleItemPurchase(String command) {
         Item selectedItem = getItemByType(command);
         if (selectedItem != null) {
-            int price = selectedItem.getPrice();
-            double currentMoney = driver.getMoney();
-            if (currentMoney >= price) {
-                currentMoney -= price;
-                driver.setMoney(currentMoney);
-                items.add(new Item(command, Color.YELLOW, -50, -50, price));
+            if (driver.purchaseItem(selectedItem)) {
                 shopFrame.setVisible(false);
                 driver.setSelectedItem(selectedItem);
             } else {
@@ -0,0 +1,50 @@
+import java.awt.*;
+import java.util.ArrayList;
+
+/**
+ * The ShopCatalog class lists every item and cat that can be bought, with their prices. It is shared by the Shop window
+ * and by tools that build layouts without a window, such as the SweepRunner.
+ */
+public class ShopCatalog {
+    /**
+     * Creates a fresh list of catalog items. Non-cat items are yellow and cats are orange.
+     * @return The catalog items, in catalog order
+     */
+    public static ArrayList<Item> createItems() {
+        ArrayList<Item> items = new ArrayList<>();
+
+        // Adding non-cat items
+        items.add(new Item("Table", Color.YELLOW, 0, 0, 30));
+        items.add(new Item("Left Chair", Color.YELLOW, 0, 0, 15));
+        items.add(new Item("Right Chair", Color.YELLOW, 0, 0, 15));
+        items.add(new Item("Sofa", Color.YELLOW, 0, 0, 50));
+        items.add(new Item("Cat Tree", Color.YELLOW, 0, 0, 50));
+        items.add(new Item("Cat Litter Box", Color.YELLOW, 0, 0, 30));
+        items.add(new Item("Cat Food", Color.YELLOW, 0, 0, 40));
+        items.add(new Item("Cat Can", Color.YELLOW, 0, 0, 60));
+        items.add(new Item("Cat Toy 1", Color.YELLOW, 0, 0, 30));
+        items.add(new Item("Cat Toy 2", Color.YELLOW, 0, 0, 30));
+        items.add(new Item("Cat Comb", Color.YELLOW, 0, 0, 45));
+        items.add(new Item("Cake", Color.YELLOW, 0, 0, 50));
+        items.add(new Item("Coffee Machine", Color.YELLOW, 0, 0, 100));
+        items.add(new Item("Ice Cream Machine", Color.YELLOW, 0, 0, 100));
+
+        // Adding cat items
+        items.add(new Item("Bombay Cat", Color.ORANGE, 0, 0, 500));
+        items.add(new Item("Orange Cat", Color.ORANGE, 0, 0, 300));
+        items.add(new Item("Tabby Cat", Color.ORANGE, 0, 0, 600));
+        items.add(new Item("White Cat", Color.ORANGE, 0, 0, 250));
+        items.add(new Item("British Shorthair Cat", Color.ORANGE, 0, 0, 1000));
+        items.add(new Item("Maine Coon Cat", Color.ORANGE, 0, 0, 1250));
+        items.add(new Item("Ragdoll Cat", Color.ORANGE, 0, 0, 1250));
+        items.add(new Item("American Shorthair Cat", Color.ORANGE, 0, 0, 300));
+        items.add(new Item("Siamese Cat", Color.ORANGE, 0, 0, 600));
+        items.add(new Item("Calico Cat", Color.ORANGE, 0, 0, 200));
+        items.add(new Item("Li Hua Cat", Color.ORANGE, 0, 0, 400));
+        items.add(new Item("Russian Blue Cat", Color.ORANGE, 0, 0, 800));
+        items.add(new Item("Balinese Cat", Color.ORANGE, 0, 0, 100));
+        items.add(new Item("Persian Cat", Color.ORANGE, 0, 0, 1000));
+        items.add(new Item("RagaMuffin Cat", Color.ORANGE, 0, 0, 700));
+        return items;
+    }
+}
@@ -0,0 +1,136 @@
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * The ShopLayout class is a set of catalog items placed on tiles of the shop, used to set up headless simulations. The
+ * entrance and cashier tiles are never used, and no two items share a tile.
+ */
+public class ShopLayout {
+    private final int width, height;
+    private ArrayList<Item> items = new ArrayList<>();
+
+    /**
+     * Constructor.
+     * Initializes an empty layout for a shop of the given size.
+     * @param width Width of the shop in pixels
+     * @param height Height of the shop in pixels
+     */
+    public ShopLayout(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Creates a random layout by buying random catalog items until the budget runs out and placing each on a random
+     * free tile.
+     * @param random Source of randomness
+     * @param budget Money available for items
+     * @param width Width of the shop in pixels
+     * @param height Height of the shop in pixels
+     * @return The layout
+     */
+    public static ShopLayout random(Random random, int budget, int width, int height) {
+        ShopLayout layout = new ShopLayout(width, height);
+        ArrayList<Item> catalog = ShopCatalog.createItems();
+        int remaining = budget;
+        int failures = 0;
+        while (failures < 20) {
+            Item choice = catalog.get(random.nextInt(catalog.size()));
+            if (choice.getPrice() > remaining || !layout.placeRandomly(random, choice)) {
+                failures++;
+                continue;
+            }
+            remaining -= choice.getPrice();
+        }
+        return layout;
+    }
+
+    /**
+     * Places a copy of a catalog item on a random free tile.
+     * @param random Source of randomness
+     * @param catalogItem The item to place
+     * @return True if a free tile was found
+     */
+    public boolean placeRandomly(Random random, Item catalogItem) {
+        int tileSize = GameWorld.TILE_SIZE;
+        for (int attempt = 0; attempt < 50; attempt++) {
+            int x = random.nextInt(width / tileSize) * tileSize;
+            int y = (random.nextInt(height / tileSize - 1) + 1) * tileSize;
+            if (isFree(x, y)) {
+                items.add(new Item(catalogItem.getType(), catalogItem.getColor(), x, y, catalogItem.getPrice()));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if a tile can take an item: it is inside the shop, is not the entrance or the cashier, and has no item.
+     * @param x X position of the tile
+     * @param y Y position of the tile
+     * @return True if the tile is free
+     */
+    public boolean isFree(int x, int y) {
+        int tileSize = GameWorld.TILE_SIZE;
+        if (x < 0 || x >= width || y < tileSize || y >= height) return false;
+        if (y == tileSize && (x == 375 / tileSize * tileSize || x >= (width / tileSize - 2) * tileSize)) return false;
+        for (Item item : items) {
+            if (item.getX() == x && item.getY() == y) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Copies the layout. Items are never changed once placed, so the copy shares them and only the list is new.
+     * @return A layout with the same items that can be changed independently
+     */
+    public ShopLayout copy() {
+        ShopLayout copy = new ShopLayout(width, height);
+        copy.items.addAll(items);
+        return copy;
+    }
+
+    /**
+     * Places every item of the layout in a world.
+     * @param world The world to set up
+     */
+    public void applyTo(GameWorld world) {
+        for (Item item : items) {
+            world.placeItem(item.getType(), item.getColor(), item.getX(), item.getY(), item.getPrice());
+        }
+    }
+
+    /**
+     * Gets the total price of the items in the layout.
+     * @return The cost of the layout
+     */
+    public int getCost() {
+        int cost = 0;
+        for (Item item : items) {
+            cost += item.getPrice();
+        }
+        return cost;
+    }
+
+    /**
+     * Gets the placed items.
+     * @return The items of the layout
+     */
+    public ArrayList<Item> getItems() {
+        return items;
+    }
+
+    /**
+     * Describes the layout as "type@column,row" entries separated by semicolons.
+     * @return The description
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Item item : items) {
+            if (sb.length() > 0) sb.append(';');
+            sb.append(item.getType()).append('@').append(item.getX() / GameWorld.TILE_SIZE).append(',').append(item.getY() / GameWorld.TILE_SIZE);
+        }
+        return sb.toString();
+    }
+}
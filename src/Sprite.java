@@ -0,0 +1,123 @@
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+
+/**
+ * The Sprite class draws an image at a fixed size in game coordinates, whatever the UI scale and the display's pixel
+ * density. When it is drawn it reads the scale from the Graphics transform, which holds both the game's zoom and the
+ * HiDPI scale of the screen, fetches the image at exactly that many device pixels from the AssetCache, and copies it
+ * onto the screen pixel for pixel. Images are scaled from the nearest mipmap on a background thread the first time a
+ * new zoom level is drawn; until the image at that size is ready, the sprite is drawn from the image it had before, or
+ * from the nearest mipmap, scaled by Java2D. A sprite is shared by everything that draws the same image at the same
+ * size and must only be drawn from one thread at a time.
+ */
+public class Sprite {
+    private static final AffineTransform IDENTITY = new AffineTransform();
+    private static final int NON_SCALING = AffineTransform.TYPE_FLIP | AffineTransform.TYPE_QUADRANT_ROTATION
+            | AffineTransform.TYPE_GENERAL_ROTATION | AffineTransform.TYPE_GENERAL_TRANSFORM;
+
+    private final String fileName;
+    private final int width, height;
+    private BufferedImage image;
+    private int deviceWidth, deviceHeight;
+
+    /**
+     * Constructor.
+     * Initializes a sprite of an image file at a size in game coordinates. Use AssetCache.getSprite() to share sprites.
+     * @param fileName The image file
+     * @param width Width in game coordinates
+     * @param height Height in game coordinates
+     */
+    public Sprite(String fileName, int width, int height) {
+        this.fileName = fileName;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Draws the sprite with its top left corner at a position in game coordinates.
+     * @param g Graphics object used for drawing
+     * @param x X position in game coordinates
+     * @param y Y position in game coordinates
+     * @return True if the sprite was drawn, false if its image could not be read
+     */
+    public boolean draw(Graphics g, int x, int y) {
+        Graphics2D g2d = (Graphics2D) g;
+        AffineTransform transform = g2d.getTransform();
+        if ((transform.getType() & NON_SCALING) != 0) {
+            // Rotated or flipped: let Java2D transform the game-sized image
+            BufferedImage logical = getImage(width, height);
+            if (logical == null) {
+                return false;
+            }
+            g2d.drawImage(logical, x, y, null);
+            return true;
+        }
+        double scaleX = transform.getScaleX();
+        double scaleY = transform.getScaleY();
+        int pixelWidth = Math.max(1, (int) Math.round(width * scaleX));
+        int pixelHeight = Math.max(1, (int) Math.round(height * scaleY));
+        BufferedImage device = getDeviceImage(pixelWidth, pixelHeight);
+        if (device == null) {
+            return false;
+        }
+        if (scaleX == 1 && scaleY == 1 && device.getWidth() == width && device.getHeight() == height) {
+            g2d.drawImage(device, x, y, null);
+        } else {
+            int deviceX = (int) Math.round(x * scaleX + transform.getTranslateX());
+            int deviceY = (int) Math.round(y * scaleY + transform.getTranslateY());
+            g2d.setTransform(IDENTITY);
+            if (device.getWidth() == pixelWidth && device.getHeight() == pixelHeight) {
+                g2d.drawImage(device, deviceX, deviceY, null);
+            } else {
+                g2d.drawImage(device, deviceX, deviceY, pixelWidth, pixelHeight, null); // Stand-in until the size is ready
+            }
+            g2d.setTransform(transform);
+        }
+        return true;
+    }
+
+    /**
+     * Gets the image at a size in device pixels, keeping the last one so drawing at the same zoom needs no lookup. A
+     * size that has not been scaled yet is scaled in the background, and meanwhile the last image, or the nearest
+     * mipmap if there is none, is returned in its own size.
+     * @param pixelWidth Width in device pixels
+     * @param pixelHeight Height in device pixels
+     * @return The image, which may not be the size asked for, or null if it could not be read
+     */
+    private BufferedImage getDeviceImage(int pixelWidth, int pixelHeight) {
+        if (image == null || pixelWidth != deviceWidth || pixelHeight != deviceHeight) {
+            BufferedImage scaled = AssetCache.getScaledImageLater(fileName, pixelWidth, pixelHeight);
+            if (scaled == null) {
+                return image != null ? image : AssetCache.getNearestImage(fileName, pixelWidth, pixelHeight);
+            }
+            image = scaled;
+            deviceWidth = pixelWidth;
+            deviceHeight = pixelHeight;
+        }
+        return image;
+    }
+
+    /**
+     * Gets the image at a size in device pixels, scaling it on this thread if it is not cached.
+     * @param pixelWidth Width in device pixels
+     * @param pixelHeight Height in device pixels
+     * @return The image, or null if it could not be read
+     */
+    private BufferedImage getImage(int pixelWidth, int pixelHeight) {
+        return AssetCache.getScaledImage(fileName, pixelWidth, pixelHeight);
+    }
+
+    /**
+     * Gets the image at the sprite's size in game coordinates, for use outside the game screen such as icons.
+     * @return The image, or null if it could not be read
+     */
+    public BufferedImage getImage() {
+        return AssetCache.getScaledImage(fileName, width, height);
+    }
+
+    // Getters for the Sprite class attributes.
+    public String getFileName() { return fileName; }
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+}
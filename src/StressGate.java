@@ -0,0 +1,110 @@
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * The StressGate class runs every StressScenario in a directory headlessly and checks it against the budgets stored in
+ * its file: the 99th percentile tick time and the bytes allocated per tick. A scenario in which no customer pays, starts an
+ * interaction or leaves during the measured ticks fails as well, since its tick times say nothing about customers. It prints one line per
+ * scenario and exits with status 1 if any scenario fails, so a build can run it after every change to catch performance
+ * regressions in customer movement or the tick loop.
+ * Each scenario first runs a fifth of its ticks unmeasured so the JIT has compiled the hot paths.
+ * Usage: java StressGate [scenarioDirectory]
+ */
+public class StressGate {
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    /**
+     * Runs one scenario and compares it with its budgets.
+     * @param scenario The scenario
+     * @return True if the scenario is within its budgets and customers made progress
+     */
+    public static boolean check(StressScenario scenario) {
+        GameWorld world = scenario.createWorld();
+        int ticks = scenario.getTicks();
+        for (int i = 0; i < ticks / 5; i++) {
+            world.tick();
+        }
+        long[] progress = new long[1];
+        world.getEvents().subscribe(event -> {
+            switch (event.getType()) {
+                case CUSTOMER_PAID:
+                case INTERACTION_STARTED:
+                case CUSTOMER_LEFT:
+                    progress[0]++;
+                    break;
+                default:
+                    break;
+            }
+        });
+
+        LatencyHistogram tickTimes = new LatencyHistogram();
+        long allocatedBefore = allocatedBytes();
+        for (int i = 0; i < ticks; i++) {
+            long start = System.nanoTime();
+            world.tick();
+            tickTimes.record(System.nanoTime() - start);
+        }
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        double p99Millis = tickTimes.getPercentile(99) / 1e6;
+        double bytesPerTick = allocated < 0 ? -1 : (double) allocated / ticks;
+        double p99Budget = scenario.getBudget("p99TickMillis");
+        double allocationBudget = scenario.getBudget("allocatedBytesPerTick");
+        boolean tickOk = p99Budget < 0 || p99Millis <= p99Budget;
+        boolean allocationOk = allocationBudget < 0 || bytesPerTick < 0 || bytesPerTick <= allocationBudget;
+        boolean progressOk = progress[0] > 0;
+
+        System.out.printf(Locale.ROOT, "%-4s %-24s p99 %.3f ms (budget %s), %.0f bytes/tick (budget %s), %d customers, %d payments, interactions and exits%s%n",
+                tickOk && allocationOk && progressOk ? "OK" : "FAIL", scenario.getName(), p99Millis, budget(p99Budget),
+                bytesPerTick, budget(allocationBudget), world.getCustomers().size(), progress[0],
+                progressOk ? "" : " (no customer made progress)");
+        return tickOk && allocationOk && progressOk;
+    }
+
+    /**
+     * Gets the bytes allocated so far by the current thread, if the JVM can tell.
+     * @return The bytes allocated, or -1 if allocation cannot be measured
+     */
+    private static long allocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+            if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Formats a budget for the report.
+     * @param value The budget, or a negative number for none
+     * @return The budget as text
+     */
+    private static String budget(double value) {
+        return value < 0 ? "none" : String.format(Locale.ROOT, "%.3f", value).replaceFirst("\\.?0+$", "");
+    }
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        File directory = new File(args.length > 0 ? args[0] : "scenarios");
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(".properties"));
+        if (files == null || files.length == 0) {
+            System.err.println("No scenarios found in " + directory);
+            System.exit(2);
+        }
+        Arrays.sort(files);
+
+        int failed = 0;
+        for (File file : files) {
+            if (!check(new StressScenario(file))) {
+                failed++;
+            }
+        }
+        System.out.println(failed == 0 ? "All scenarios within budget" : failed + " of " + files.length + " scenarios failed");
+        System.exit(failed == 0 ? 0 : 1);
+    }
+}
@@ -0,0 +1,232 @@
+import java.awt.*;
+import java.io.*;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.Random;
+
+/**
+ * The StressScenario class builds a synthetic shop for performance testing from a properties file: its size, how
+ * densely it is filled with items (or a maze of items that forces long path searches), how many customers are in it
+ * and how often waste appears. The same file holds the scenario's budgets, which the StressGate checks.
+ * <pre>
+ * width=1600
+ * height=1200
+ * # random, maze or empty; density is the share of tiles with an item in random layouts
+ * layout=random
+ * density=0.2
+ * customers=500
+ * # milliseconds between waste spawns
+ * wasteInterval=2000
+ * ticks=3000
+ * seed=1
+ * budget.p99TickMillis=4
+ * budget.allocatedBytesPerTick=65536
+ * </pre>
+ */
+public class StressScenario {
+    private final String name;
+    private final Properties properties;
+
+    /**
+     * Constructor.
+     * Reads a scenario file.
+     * @param file The scenario file
+     * @throws IOException If the file cannot be read
+     */
+    public StressScenario(File file) throws IOException {
+        this.name = file.getName().replaceFirst("\\.properties$", "");
+        this.properties = new Properties();
+        try (Reader reader = new BufferedReader(new FileReader(file))) {
+            properties.load(reader);
+        }
+    }
+
+    /**
+     * Builds the world of the scenario: the layout, the customers and the waste rate. The shop starts full, and a new
+     * customer comes in on the first tick after one leaves, so the crowd stays at the size the scenario asks for.
+     * @return The world, ready to tick
+     */
+    public GameWorld createWorld() {
+        int width = getInt("width", GameWorld.DEFAULT_WIDTH);
+        int height = getInt("height", GameWorld.DEFAULT_HEIGHT);
+        long seed = getLong("seed", 1);
+        GameWorld world = new GameWorld(seed, width, height);
+
+        boolean[] blocked;
+        Random layoutRandom = new Random(seed);
+        switch (properties.getProperty("layout", "random").trim()) {
+            case "maze": blocked = maze(world, layoutRandom); break;
+            case "empty": blocked = new boolean[world.getGrid().getTileCount()]; break;
+            case "random": blocked = random(world, layoutRandom, getDouble("density", 0.2)); break;
+            default: throw new IllegalArgumentException("Unknown layout in " + name + ": " + properties.getProperty("layout"));
+        }
+        TileGrid grid = world.getGrid();
+        for (int tile = 0; tile < blocked.length; tile++) {
+            if (blocked[tile]) {
+                world.placeItem("Table", Color.YELLOW, grid.getX(tile), grid.getY(tile), 30);
+            }
+        }
+
+        int customers = getInt("customers", GameWorld.DEFAULT_CUSTOMER_CAPACITY);
+        world.setCustomerCapacity(customers);
+        for (int i = 0; i < customers; i++) {
+            world.spawnCustomer();
+        }
+        world.setArrivalModel((time, reputationFixed, random) -> GameWorld.TICK_MILLIS);
+        world.setWasteInterval(getInt("wasteInterval", GameWorld.WASTE_INTERVAL));
+        return world;
+    }
+
+    /**
+     * Puts items on random tiles, leaving the entrance and cashier free and a way between them.
+     * @param world The world, whose grid gives the tiles
+     * @param random Source of randomness
+     * @param density Share of tiles to fill
+     * @return Which tiles get an item
+     */
+    private boolean[] random(GameWorld world, Random random, double density) {
+        TileGrid grid = world.getGrid();
+        boolean[] blocked = new boolean[grid.getTileCount()];
+        for (int tile = grid.getColumns(); tile < blocked.length; tile++) {
+            blocked[tile] = random.nextDouble() < density;
+        }
+        keepFree(world, blocked);
+        return blocked;
+    }
+
+    /**
+     * Fills the shop with a maze of items carved by a randomized depth-first search, so every free tile can be reached
+     * but paths between them are long and winding.
+     * @param world The world, whose grid gives the tiles
+     * @param random Source of randomness
+     * @return Which tiles get an item
+     */
+    private boolean[] maze(GameWorld world, Random random) {
+        TileGrid grid = world.getGrid();
+        int columns = grid.getColumns();
+        int rows = grid.getRows();
+        boolean[] blocked = new boolean[grid.getTileCount()];
+        for (int tile = columns; tile < blocked.length; tile++) {
+            blocked[tile] = true;
+        }
+
+        // Cells sit on even columns and odd rows (row 0 is the menu bar); the tiles between them are walls
+        int[] stack = new int[blocked.length];
+        int size = 0;
+        stack[size++] = columns;
+        blocked[columns] = false;
+        int[][] directions = {{2, 0}, {-2, 0}, {0, 2}, {0, -2}};
+        while (size > 0) {
+            int cell = stack[size - 1];
+            int column = cell % columns;
+            int row = cell / columns;
+            int start = random.nextInt(4);
+            boolean carved = false;
+            for (int i = 0; i < 4 && !carved; i++) {
+                int[] direction = directions[(start + i) % 4];
+                int nextColumn = column + direction[0];
+                int nextRow = row + direction[1];
+                if (nextColumn < 0 || nextColumn >= columns || nextRow < 1 || nextRow >= rows) continue;
+                int next = nextRow * columns + nextColumn;
+                if (!blocked[next]) continue;
+                blocked[(row + direction[1] / 2) * columns + column + direction[0] / 2] = false;
+                blocked[next] = false;
+                stack[size++] = next;
+                carved = true;
+            }
+            if (!carved) {
+                size--;
+            }
+        }
+        keepFree(world, blocked);
+        return blocked;
+    }
+
+    /**
+     * Frees the entrance and cashier tiles, and if the items cut the cashier off from the entrance, clears the fewest
+     * items that opens a way between them, so customers can always come in and pay.
+     * @param world The world
+     * @param blocked Which tiles get an item
+     */
+    private void keepFree(GameWorld world, boolean[] blocked) {
+        TileGrid grid = world.getGrid();
+        int row = GameWorld.TILE_SIZE;
+        int entrance = grid.tileAt(world.getEntranceX(), row);
+        int cashier = grid.tileAt((grid.getColumns() - 2) * GameWorld.TILE_SIZE, row);
+        blocked[entrance] = false;
+        blocked[cashier] = false;
+        blocked[grid.tileAt((grid.getColumns() - 1) * GameWorld.TILE_SIZE, row)] = false;
+        carveCorridor(grid, blocked, entrance, cashier);
+    }
+
+    /**
+     * Clears the items on the way from one tile to another that crosses the fewest items. The search is a breadth-first
+     * search in which stepping onto a free tile costs nothing and onto an item costs one, so if the tiles are already
+     * connected nothing is cleared.
+     * @param grid The grid
+     * @param blocked Which tiles get an item
+     * @param from The tile to start at
+     * @param to The tile to reach
+     */
+    private static void carveCorridor(TileGrid grid, boolean[] blocked, int from, int to) {
+        int columns = grid.getColumns();
+        int[] cost = new int[blocked.length];
+        int[] previous = new int[blocked.length];
+        Arrays.fill(cost, Integer.MAX_VALUE);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        cost[from] = 0;
+        previous[from] = -1;
+        queue.add(from);
+        while (!queue.isEmpty()) {
+            int tile = queue.poll();
+            int column = tile % columns;
+            int[] neighbours = {column + 1 < columns ? tile + 1 : -1, column > 0 ? tile - 1 : -1,
+                    tile + columns < blocked.length ? tile + columns : -1, tile - columns >= columns ? tile - columns : -1};
+            for (int next : neighbours) {
+                if (next < 0) continue;
+                int step = blocked[next] ? 1 : 0;
+                if (cost[tile] + step < cost[next]) {
+                    cost[next] = cost[tile] + step;
+                    previous[next] = tile;
+                    if (step == 0) {
+                        queue.addFirst(next);
+                    } else {
+                        queue.addLast(next);
+                    }
+                }
+            }
+        }
+        for (int tile = to; tile >= 0; tile = previous[tile]) {
+            blocked[tile] = false;
+        }
+    }
+
+    /**
+     * Gets a budget of the scenario.
+     * @param key Name of the budget, without the "budget." prefix
+     * @return The budget, or a negative number if the scenario has none
+     */
+    public double getBudget(String key) {
+        return getDouble("budget." + key, -1);
+    }
+
+    private int getInt(String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    private long getLong(String key, long defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null ? defaultValue : Long.parseLong(value.trim());
+    }
+
+    private double getDouble(String key, double defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null ? defaultValue : Double.parseDouble(value.trim());
+    }
+
+    // Getters for the StressScenario class attributes.
+    public String getName() { return name; }
+    public int getTicks() { return getInt("ticks", 3000); }
+}
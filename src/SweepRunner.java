@@ -0,0 +1,119 @@
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.*;
+
+/**
+ * The SweepRunner class answers balancing questions such as "how do money and reputation evolve over 8 hours for 200
+ * layouts and 10 seeds" without the game window. Every (layout, seed) pair is an independent HeadlessSimulation; they
+ * run in parallel and each finished run is written as one CSV row straight away, so long sweeps can be watched and
+ * interrupted.
+ * Runs use virtual threads when the JVM has them, and otherwise a pool with one thread per core. The simulations are
+ * CPU bound and share nothing, so either way the sweep scales with the number of cores.
+ * Usage: java SweepRunner [--layouts 200] [--seeds 10] [--hours 8] [--budget 2000] [--seed 1] [--out sweep.csv]
+ *        [--capacity 10] [--arrival-rate 0]
+ * An arrival rate above 0 switches to Poisson arrivals at that many per minute for every 1000 reputation.
+ */
+public class SweepRunner {
+    private int layouts = 200;
+    private int seeds = 10;
+    private double hours = 8;
+    private int budget = 2000;
+    private long baseSeed = 1;
+    private String out = "sweep.csv";
+    private int capacity = GameWorld.DEFAULT_CUSTOMER_CAPACITY;
+    private double arrivalRate = 0;
+
+    /**
+     * Constructor.
+     * Reads the sweep settings from command-line arguments.
+     * @param args The arguments
+     */
+    public SweepRunner(String[] args) {
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--layouts": layouts = Integer.parseInt(args[i + 1]); break;
+                case "--seeds": seeds = Integer.parseInt(args[i + 1]); break;
+                case "--hours": hours = Double.parseDouble(args[i + 1]); break;
+                case "--budget": budget = Integer.parseInt(args[i + 1]); break;
+                case "--seed": baseSeed = Long.parseLong(args[i + 1]); break;
+                case "--out": out = args[i + 1]; break;
+                case "--capacity": capacity = Integer.parseInt(args[i + 1]); break;
+                case "--arrival-rate": arrivalRate = Double.parseDouble(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+    }
+
+    /**
+     * Creates the executor the runs are submitted to: a virtual thread per run if the JVM supports it, otherwise a
+     * fixed pool with one platform thread per core.
+     * @return The executor
+     */
+    static ExecutorService createExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        }
+    }
+
+    /**
+     * Runs the sweep and writes the CSV file.
+     * @throws IOException If the file cannot be written
+     * @throws InterruptedException If the sweep is interrupted
+     */
+    public void run() throws IOException, InterruptedException {
+        // Generate every layout up front so layout i is the same whatever the number of seeds or threads
+        ArrayList<ShopLayout> layoutList = new ArrayList<>();
+        Random layoutRandom = new Random(baseSeed);
+        for (int i = 0; i < layouts; i++) {
+            layoutList.add(ShopLayout.random(new Random(layoutRandom.nextLong()), budget, GameWorld.DEFAULT_WIDTH, GameWorld.DEFAULT_HEIGHT));
+        }
+
+        long start = System.nanoTime();
+        ExecutorService executor = createExecutor();
+        try (PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(out)))) {
+            writer.println("layout,seed,items,layout_cost," + HeadlessSimulation.csvHeader() + ",layout_items");
+            ArrayList<Future<?>> runs = new ArrayList<>();
+            for (int l = 0; l < layouts; l++) {
+                for (int s = 0; s < seeds; s++) {
+                    int layoutIndex = l;
+                    long seed = baseSeed * 1_000_003L + s;
+                    runs.add(executor.submit(() -> {
+                        ShopLayout layout = layoutList.get(layoutIndex);
+                        HeadlessSimulation simulation = new HeadlessSimulation(seed, layout);
+                        simulation.getWorld().setCustomerCapacity(capacity);
+                        if (arrivalRate > 0) {
+                            simulation.getWorld().setArrivalRate(arrivalRate);
+                        }
+                        simulation.runHours(hours);
+                        String row = layoutIndex + "," + seed + "," + layout.getItems().size() + "," + layout.getCost() + ","
+                                + simulation.toCsvRow() + ",\"" + layout + "\"";
+                        synchronized (writer) {
+                            writer.println(row);
+                            writer.flush();
+                        }
+                    }));
+                }
+            }
+            for (Future<?> run : runs) {
+                try {
+                    run.get();
+                } catch (ExecutionException e) {
+                    e.getCause().printStackTrace();
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d runs, %.0f simulated hours in %.1f s, written to %s%n", layouts * seeds, layouts * seeds * hours, seconds, out);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        System.setProperty("java.awt.headless", "true");
+        new SweepRunner(args).run();
+    }
+}
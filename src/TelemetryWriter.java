@@ -0,0 +1,219 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The TelemetryWriter class streams what happens in the game to local files for offline analysis: a sample of money,
+ * reputation, customers and tick time for every room on every tick, and a record for every GameEvent. Records are put in
+ * a preallocated single-producer ring buffer by the game thread, which never blocks or allocates: if the background
+ * writer falls behind and the ring is full, records are dropped and counted. The writer thread drains the ring into
+ * rolling files telemetry-00000.bin, telemetry-00001.bin and so on, starting a new file when one reaches its size limit
+ * and deleting the oldest when there are too many.
+ * Every file is a plain array of 32-byte little-endian records, which numpy can load directly:
+ * <pre>
+ * numpy.fromfile("telemetry-00000.bin", dtype=[("time", "&lt;i8"), ("kind", "&lt;i2"), ("room", "&lt;i2"),
+ *     ("extra", "&lt;i4"), ("x", "&lt;i4"), ("y", "&lt;i4"), ("value", "&lt;i8")])
+ * </pre>
+ * time is the simulated time in milliseconds and room the index of the room in the venue. Kind 0 is a tick sample with
+ * x = customers, y = tick time in microseconds, value = money in cents and extra = reputation in 1/100 points. Kind
+ * 1 + n is an event of GameEvent.Type n, with its position in x and y and GameEvent.getValue() in value; extra is the
+ * customer's satisfaction for customer events, or the price of the item for INTERACTION_STARTED.
+ */
+public class TelemetryWriter {
+    public static final int RECORD_BYTES = 32;
+    public static final int KIND_TICK = 0;
+    private static final int RING_RECORDS = 1 << 16;
+    private static final int LONGS_PER_RECORD = 4;
+    private static final int BATCH_RECORDS = 2048;
+    private static final long IDLE_PARK_NANOS = 2_000_000L;
+
+    private final File directory;
+    private final long maxFileBytes;
+    private final int maxFiles;
+    private final long[] ring = new long[RING_RECORDS * LONGS_PER_RECORD];
+    private final AtomicLong head = new AtomicLong(); // Next record the game thread writes
+    private final AtomicLong tail = new AtomicLong(); // Next record the writer thread reads
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BATCH_RECORDS * RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private final Thread writer;
+    private volatile boolean running = true;
+    private volatile long dropped;
+    private FileChannel channel;
+    private int fileIndex;
+    private long fileBytes;
+
+    /**
+     * Constructor.
+     * Creates the directory if needed and starts the writer thread.
+     * @param directory Directory to write the files to
+     * @param maxFileBytes Size at which a new file is started
+     * @param maxFiles Number of files to keep; older ones are deleted
+     * @throws IOException If the first file cannot be created
+     */
+    public TelemetryWriter(File directory, long maxFileBytes, int maxFiles) throws IOException {
+        this.directory = directory;
+        this.maxFileBytes = Math.max(RECORD_BYTES, maxFileBytes / RECORD_BYTES * RECORD_BYTES);
+        this.maxFiles = Math.max(1, maxFiles);
+        directory.mkdirs();
+        openFile();
+        writer = new Thread(this::drainLoop, "telemetry-writer");
+        writer.setDaemon(true);
+        writer.setPriority(Thread.MIN_PRIORITY);
+        writer.start();
+    }
+
+    /**
+     * Streams the events of a room from now on. Events are recorded on the thread that dispatches them, which for all
+     * rooms of a venue is the thread calling Venue.tick().
+     * @param world The room
+     * @param room Index of the room in the venue
+     */
+    public void attach(GameWorld world, int room) {
+        world.getEvents().subscribe(event -> {
+            int extra = 0;
+            if (event.getSubject() instanceof Customer) {
+                Customer customer = (Customer) event.getSubject();
+                Item item = customer.getCurrentItem();
+                extra = event.getType() == GameEvent.Type.INTERACTION_STARTED && item != null ? item.getPrice() : customer.getSatisfaction();
+            }
+            record(event.getTime(), 1 + event.getType().ordinal(), room, extra, event.getX(), event.getY(), event.getValue());
+        });
+    }
+
+    /**
+     * Records the state of a room after a tick.
+     * @param world The room
+     * @param room Index of the room in the venue
+     * @param tickNanos How long the tick took
+     */
+    public void sampleTick(GameWorld world, int room, long tickNanos) {
+        record(world.getTime(), KIND_TICK, room, (int) world.getLedger().getReputationFixed(), world.getCustomers().size(),
+                (int) Math.min(Integer.MAX_VALUE, tickNanos / 1000), world.getLedger().getBalanceCents());
+    }
+
+    /**
+     * Puts a record in the ring, or drops it if the ring is full. Must only be called from one thread at a time.
+     * @param time The simulated time
+     * @param kind KIND_TICK, or 1 + the ordinal of the event type
+     * @param room Index of the room
+     * @param extra Reputation, satisfaction or price, depending on the kind
+     * @param x X position or number of customers
+     * @param y Y position or tick time
+     * @param value Money or the event's value
+     */
+    private void record(long time, int kind, int room, int extra, int x, int y, long value) {
+        long h = head.get();
+        if (h - tail.get() >= RING_RECORDS) {
+            dropped++;
+            return;
+        }
+        int slot = (int) (h & (RING_RECORDS - 1)) * LONGS_PER_RECORD;
+        ring[slot] = time;
+        ring[slot + 1] = (long) (kind & 0xFFFF) << 48 | (long) (room & 0xFFFF) << 32 | (extra & 0xFFFFFFFFL);
+        ring[slot + 2] = (long) x << 32 | (y & 0xFFFFFFFFL);
+        ring[slot + 3] = value;
+        head.lazySet(h + 1); // Publishes the record's fields to the writer thread
+    }
+
+    /**
+     * Runs on the writer thread: writes whatever is in the ring, and rests briefly when it is empty.
+     */
+    private void drainLoop() {
+        while (running) {
+            if (drain() == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        drain();
+    }
+
+    /**
+     * Writes the records in the ring to the current file, in batches.
+     * @return Number of records written
+     */
+    private int drain() {
+        int written = 0;
+        long t = tail.get();
+        long h = head.get();
+        try {
+            while (t < h) {
+                buffer.clear();
+                long end = Math.min(h, t + Math.min(BATCH_RECORDS, (maxFileBytes - fileBytes) / RECORD_BYTES));
+                for (; t < end; t++) {
+                    int slot = (int) (t & (RING_RECORDS - 1)) * LONGS_PER_RECORD;
+                    long packed = ring[slot + 1];
+                    long position = ring[slot + 2];
+                    buffer.putLong(ring[slot]);
+                    buffer.putShort((short) (packed >>> 48));
+                    buffer.putShort((short) (packed >>> 32));
+                    buffer.putInt((int) packed);
+                    buffer.putInt((int) (position >>> 32));
+                    buffer.putInt((int) position);
+                    buffer.putLong(ring[slot + 3]);
+                    written++;
+                }
+                tail.lazySet(t);
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    fileBytes += channel.write(buffer);
+                }
+                if (fileBytes >= maxFileBytes) {
+                    rollFile();
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            running = false;
+            tail.lazySet(h); // Let the game thread keep going; the records are lost
+        }
+        return written;
+    }
+
+    /**
+     * Opens the file for the current index, from the start.
+     * @throws IOException If the file cannot be created
+     */
+    private void openFile() throws IOException {
+        File file = new File(directory, String.format("telemetry-%05d.bin", fileIndex));
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        fileBytes = 0;
+    }
+
+    /**
+     * Closes the current file, starts the next one and deletes the oldest file beyond the number kept.
+     * @throws IOException If a file cannot be closed or created
+     */
+    private void rollFile() throws IOException {
+        channel.close();
+        fileIndex++;
+        openFile();
+        File oldest = new File(directory, String.format("telemetry-%05d.bin", fileIndex - maxFiles));
+        if (fileIndex >= maxFiles && oldest.exists() && !oldest.delete()) {
+            System.err.println("Could not delete " + oldest);
+        }
+    }
+
+    /**
+     * Writes what is left in the ring, stops the writer thread and closes the file.
+     */
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+            channel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Getters for the TelemetryWriter class attributes.
+    public long getDropped() { return dropped; }
+    public long getRecorded() { return head.get(); }
+}
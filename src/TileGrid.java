@@ -0,0 +1,116 @@
+import java.util.function.IntConsumer;
+
+/**
+ * The TileGrid class tracks which tiles of a room are covered by items, so walkability is a lookup instead of a scan
+ * over every item. Tiles are numbered row by row from the top left; the top row holds the menu bar and is never
+ * walkable.
+ */
+public class TileGrid {
+    private final int tileSize;
+    private final int columns, rows;
+    private final int[] itemCounts;
+
+    /**
+     * Constructor.
+     * Initializes a grid without items for a room of the given size.
+     * @param width Width of the room in pixels
+     * @param height Height of the room in pixels
+     * @param tileSize Size of a tile in pixels
+     */
+    public TileGrid(int width, int height, int tileSize) {
+        this.tileSize = tileSize;
+        this.columns = width / tileSize;
+        this.rows = height / tileSize;
+        this.itemCounts = new int[columns * rows];
+    }
+
+    /**
+     * Gets the tile at a position.
+     * @param x X position in pixels
+     * @param y Y position in pixels
+     * @return The tile, or -1 if the position is outside the room
+     */
+    public int tileAt(int x, int y) {
+        if (x < 0 || y < 0) return -1;
+        int column = x / tileSize;
+        int row = y / tileSize;
+        if (column >= columns || row >= rows) return -1;
+        return row * columns + column;
+    }
+
+    /**
+     * Checks if customers can walk on a tile.
+     * @param tile The tile
+     * @return True if the tile is below the menu bar and has no item on it
+     */
+    public boolean isWalkable(int tile) {
+        return tile >= columns && tile < itemCounts.length && itemCounts[tile] == 0;
+    }
+
+    /**
+     * Marks the tiles an item covers as blocked.
+     * @param item The item
+     * @param changed Told about each tile that was walkable and no longer is
+     */
+    public void addItem(Item item, IntConsumer changed) {
+        update(item, 1, changed);
+    }
+
+    /**
+     * Unmarks the tiles an item covers.
+     * @param item The item
+     * @param changed Told about each tile that has become walkable
+     */
+    public void removeItem(Item item, IntConsumer changed) {
+        update(item, -1, changed);
+    }
+
+    /**
+     * Adds to the item count of every tile an item overlaps.
+     * @param item The item
+     * @param delta 1 when the item is added, -1 when it is removed
+     * @param changed Told about each tile whose walkability flipped
+     */
+    private void update(Item item, int delta, IntConsumer changed) {
+        int firstColumn = Math.max(0, Math.floorDiv(item.getX(), tileSize));
+        int lastColumn = Math.min(columns - 1, Math.floorDiv(item.getX() + item.getWidth() - 1, tileSize));
+        int firstRow = Math.max(0, Math.floorDiv(item.getY(), tileSize));
+        int lastRow = Math.min(rows - 1, Math.floorDiv(item.getY() + item.getHeight() - 1, tileSize));
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int tile = row * columns + column;
+                boolean wasWalkable = itemCounts[tile] == 0;
+                itemCounts[tile] += delta;
+                if (wasWalkable != (itemCounts[tile] == 0)) {
+                    changed.accept(tile);
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts the items on a tile and the eight tiles around it, which are the items a customer on the tile can reach.
+     * @param tile The tile
+     * @return Number of items within one tile, or 0 if the tile is outside the room
+     */
+    public int countItemsAround(int tile) {
+        if (tile < 0 || tile >= itemCounts.length) return 0;
+        int column = tile % columns;
+        int row = tile / columns;
+        int count = 0;
+        for (int r = Math.max(0, row - 1); r <= Math.min(rows - 1, row + 1); r++) {
+            for (int c = Math.max(0, column - 1); c <= Math.min(columns - 1, column + 1); c++) {
+                count += itemCounts[r * columns + c];
+            }
+        }
+        return count;
+    }
+
+    // Getters for the TileGrid class attributes.
+    public int getTileSize() { return tileSize; }
+    public int getColumns() { return columns; }
+    public int getRows() { return rows; }
+    public int getTileCount() { return itemCounts.length; }
+    public int getX(int tile) { return tile % columns * tileSize; }
+    public int getY(int tile) { return tile / columns * tileSize; }
+}
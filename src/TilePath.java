@@ -0,0 +1,80 @@
+import java.util.Arrays;
+
+/**
+ * The TilePath class is a path over a TileGrid stored as packed tile numbers in a short array, with a cursor at the
+ * next tile to walk to. Tiles are stored unsigned, so grids of up to 65536 tiles fit in the short array; the first tile
+ * beyond that switches the path to an int array for good. A customer keeps one TilePath and refills it for every new path, so following and replanning
+ * paths allocates nothing once the array has grown to the longest path, and walking a path reads consecutive memory.
+ */
+public class TilePath {
+    private short[] tiles;
+    private int[] wideTiles; // Used instead of tiles once a tile did not fit in 16 bits
+    private int length;
+    private int cursor;
+
+    /**
+     * Constructor.
+     * Initializes an empty path with room for the given number of tiles.
+     * @param capacity Initial number of tiles the path can hold
+     */
+    public TilePath(int capacity) {
+        tiles = new short[Math.max(1, capacity)];
+    }
+
+    /**
+     * Empties the path so it can be filled again.
+     */
+    public void clear() {
+        length = 0;
+        cursor = 0;
+    }
+
+    /**
+     * Adds a tile to the end of the path.
+     * @param tile The tile, which must not be negative
+     */
+    public void add(int tile) {
+        if (wideTiles == null && tile > 0xFFFF) {
+            wideTiles = new int[tiles.length];
+            for (int i = 0; i < length; i++) {
+                wideTiles[i] = tiles[i] & 0xFFFF;
+            }
+            tiles = null;
+        }
+        if (wideTiles != null) {
+            if (length == wideTiles.length) {
+                wideTiles = Arrays.copyOf(wideTiles, wideTiles.length * 2);
+            }
+            wideTiles[length++] = tile;
+            return;
+        }
+        if (length == tiles.length) {
+            tiles = Arrays.copyOf(tiles, tiles.length * 2);
+        }
+        tiles[length++] = (short) tile;
+    }
+
+    /**
+     * Takes the next tile of the path and moves the cursor past it.
+     * @return The tile
+     */
+    public int next() {
+        return wideTiles != null ? wideTiles[cursor++] : tiles[cursor++] & 0xFFFF;
+    }
+
+    /**
+     * Checks if every tile of the path has been taken.
+     * @return True if nothing is left to walk
+     */
+    public boolean isEmpty() {
+        return cursor >= length;
+    }
+
+    /**
+     * Gets the number of tiles still to walk.
+     * @return The number of tiles left
+     */
+    public int remaining() {
+        return length - cursor;
+    }
+}
@@ -0,0 +1,40 @@
+import java.util.function.LongConsumer;
+
+/**
+ * The TimedEvent class is something that should happen at a deadline in simulated time, such as a customer's next step
+ * or the next waste spawn. It is scheduled on a TimingWheel, which calls its action with the current simulated time once
+ * the deadline is reached. An event is reused for every deadline of the same action, so scheduling does not allocate, and scheduling
+ * an event that is already waiting moves it to the new deadline.
+ */
+public class TimedEvent {
+    final LongConsumer action;
+    long deadline;
+    int list;
+    TimedEvent prev, next;
+    TimingWheel wheel;
+
+    /**
+     * Constructor.
+     * Initializes an unscheduled event.
+     * @param action The action to run, which is given the simulated time it runs at
+     */
+    public TimedEvent(LongConsumer action) {
+        this.action = action;
+    }
+
+    /**
+     * Checks if the event is waiting on a wheel.
+     * @return True if the event is scheduled
+     */
+    public boolean isScheduled() {
+        return wheel != null;
+    }
+
+    /**
+     * Gets the time the event is scheduled for.
+     * @return The deadline in simulated milliseconds
+     */
+    public long getDeadline() {
+        return deadline;
+    }
+}
@@ -0,0 +1,212 @@
+/**
+ * The TimingWheel class holds every deadline of a simulation and runs only the events that are due as simulated time
+ * advances. It is a hierarchical timing wheel with one-millisecond resolution: four levels of 64 slots each cover
+ * deadlines up to about 4.6 hours ahead, and later deadlines wait in an overflow list. An event is filed in the level that
+ * matches how far away it is and moves down a level each time the level above wraps around, so scheduling, cancelling and
+ * firing an event all take constant time, and advancing costs time proportional to the events that fire rather than the
+ * events that are waiting.
+ * Time only moves when advanceTo() is called, so a paused game simply stops calling it.
+ */
+public class TimingWheel {
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final int DUE = LEVELS * SLOTS;
+    private static final int OVERFLOW = DUE + 1;
+
+    // One FIFO list per slot, plus the list of due events and the overflow list
+    private final TimedEvent[] heads = new TimedEvent[OVERFLOW + 1];
+    private final TimedEvent[] tails = new TimedEvent[OVERFLOW + 1];
+    private long time;
+    private long base = 1; // Next millisecond to process; every earlier one has been processed
+    private int size;
+
+    /**
+     * Gets the current simulated time. While events are firing this is the millisecond being processed.
+     * @return The time in milliseconds
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Gets the number of scheduled events.
+     * @return The number of events waiting on the wheel
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Schedules an event, moving it if it is already scheduled. A deadline that has already passed fires as soon as
+     * possible: later in the current advance if one is running, otherwise at the start of the next.
+     * @param event The event to schedule
+     * @param deadline The simulated time to run it at
+     */
+    public void schedule(TimedEvent event, long deadline) {
+        if (event.wheel != null) {
+            cancel(event);
+        }
+        event.deadline = deadline;
+        event.wheel = this;
+        size++;
+        file(event);
+    }
+
+    /**
+     * Cancels an event if it is scheduled.
+     * @param event The event to cancel
+     */
+    public void cancel(TimedEvent event) {
+        if (event.wheel != this) return;
+        unlink(event);
+        event.wheel = null;
+        size--;
+    }
+
+    /**
+     * Advances time, running every event with a deadline up to and including the target in deadline order. Events
+     * scheduled by running events are run in the same advance if their deadline is not after the target.
+     * @param target The simulated time to advance to
+     */
+    public void advanceTo(long target) {
+        runDue();
+        while (base <= target) {
+            if (size == 0) {
+                // Nothing is waiting, so every slot is empty and we can jump straight to the target
+                base = target + 1;
+                break;
+            }
+            time = base;
+            int index = (int) (base & MASK);
+            if (index == 0 && cascade(1) == 0 && cascade(2) == 0 && cascade(3) == 0) {
+                // The top level wrapped around, so deadlines from the overflow list may now fit in the wheel
+                refile(OVERFLOW);
+            }
+            moveToDue(index);
+            base++;
+            runDue();
+        }
+        time = target;
+    }
+
+    /**
+     * Files the events of the current slot of a level into the levels below it.
+     * @param level The level to cascade
+     * @return The slot index of that level, which is 0 when the level above needs to cascade too
+     */
+    private int cascade(int level) {
+        int index = (int) ((base >>> (BITS * level)) & MASK);
+        refile(level * SLOTS + index);
+        return index;
+    }
+
+    /**
+     * Takes every event out of a list and files it again relative to the current time.
+     * @param list The list to empty
+     */
+    private void refile(int list) {
+        TimedEvent event = heads[list];
+        heads[list] = null;
+        tails[list] = null;
+        while (event != null) {
+            TimedEvent next = event.next;
+            event.prev = null;
+            event.next = null;
+            file(event);
+            event = next;
+        }
+    }
+
+    /**
+     * Moves the events of a level 0 slot, which are all due at the current time, to the end of the due list.
+     * @param index The slot index
+     */
+    private void moveToDue(int index) {
+        TimedEvent event = heads[index];
+        heads[index] = null;
+        tails[index] = null;
+        while (event != null) {
+            TimedEvent next = event.next;
+            event.prev = null;
+            event.next = null;
+            append(DUE, event);
+            event = next;
+        }
+    }
+
+    /**
+     * Runs the due events in order, including ones that become due while running.
+     */
+    private void runDue() {
+        while (heads[DUE] != null) {
+            TimedEvent event = heads[DUE];
+            unlink(event);
+            event.wheel = null;
+            size--;
+            event.action.accept(time);
+        }
+    }
+
+    /**
+     * Adds an event to the list that matches how far its deadline is from the current time.
+     * @param event The event to file
+     */
+    private void file(TimedEvent event) {
+        long deadline = event.deadline;
+        long delta = deadline - base;
+        int list;
+        if (delta < 0) {
+            list = DUE;
+        } else if (delta < 1L << BITS) {
+            list = (int) (deadline & MASK);
+        } else if (delta < 1L << (2 * BITS)) {
+            list = SLOTS + (int) ((deadline >>> BITS) & MASK);
+        } else if (delta < 1L << (3 * BITS)) {
+            list = 2 * SLOTS + (int) ((deadline >>> (2 * BITS)) & MASK);
+        } else if (delta < 1L << (4 * BITS)) {
+            list = 3 * SLOTS + (int) ((deadline >>> (3 * BITS)) & MASK);
+        } else {
+            list = OVERFLOW;
+        }
+        append(list, event);
+    }
+
+    /**
+     * Adds an event to the end of a list.
+     * @param list The list
+     * @param event The event
+     */
+    private void append(int list, TimedEvent event) {
+        event.list = list;
+        event.prev = tails[list];
+        event.next = null;
+        if (tails[list] != null) {
+            tails[list].next = event;
+        } else {
+            heads[list] = event;
+        }
+        tails[list] = event;
+    }
+
+    /**
+     * Removes an event from the list it is in.
+     * @param event The event
+     */
+    private void unlink(TimedEvent event) {
+        int list = event.list;
+        if (event.prev != null) {
+            event.prev.next = event.next;
+        } else {
+            heads[list] = event.next;
+        }
+        if (event.next != null) {
+            event.next.prev = event.prev;
+        } else {
+            tails[list] = event.prev;
+        }
+        event.prev = null;
+        event.next = null;
+    }
+}
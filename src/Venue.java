@@ -0,0 +1,302 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+
+/**
+ * The Venue class is a cafe made of several rooms (floors, patios) connected by doorways. Each room is a GameWorld with
+ * its own items, waste, customers and clock, and all rooms share one ledger. New customers come in from the street in
+ * the first room; a customer who walks out through a room's entrance either goes through a doorway into a connected
+ * room or leaves the venue.
+ * On each tick every room is advanced by a worker thread of its own, so large venues use several cores. Rooms never
+ * touch each other during a tick: a customer walking through a doorway is set aside by the room they left, and only
+ * when every room has finished the tick are they put in the doorway's bounded queue, room by room, so the room on the
+ * other side takes them in at the start of the next tick however the workers were scheduled. The events of all rooms are then dispatched on
+ * the thread that called tick(), in room order, so listeners and the Swing thread see no concurrency and a seeded venue
+ * always plays out the same way.
+ */
+public class Venue {
+    public static final int DOORWAY_CAPACITY = 4;
+    private static final int MAX_ROOMS_VISITED = 4;
+
+    private final EconomyLedger ledger;
+    private final ArrayList<GameWorld> rooms = new ArrayList<>();
+    private final ArrayList<ArrayList<Doorway>> exits = new ArrayList<>();
+    private final ArrayList<ArrayList<Doorway>> entrances = new ArrayList<>();
+    private final ArrayList<ArrayList<Exit>> leaving = new ArrayList<>();
+    private final ArrayList<Callable<Void>> tasks = new ArrayList<>();
+    private final int threads;
+    private int stepTicks = 1;
+    private ExecutorService workers;
+
+    /**
+     * The Doorway class is a one-way connection between two rooms, holding the customers who have walked through it
+     * and not yet been taken in by the room on the other side.
+     */
+    private static class Doorway {
+        final ArrayBlockingQueue<Customer> queue = new ArrayBlockingQueue<>(DOORWAY_CAPACITY);
+    }
+
+    /**
+     * The Exit class is a customer who walked through a doorway during the current tick, waiting to be put in its queue.
+     */
+    private static class Exit {
+        final Doorway doorway;
+        final Customer customer;
+
+        Exit(Doorway doorway, Customer customer) {
+            this.doorway = doorway;
+            this.customer = customer;
+        }
+    }
+
+    /**
+     * Constructor.
+     * Initializes a venue of rooms of the default size connected one after another, like the floors of a building.
+     * @param seed Seed for all randomness in the venue
+     * @param roomCount Number of rooms
+     */
+    public Venue(long seed, int roomCount) {
+        this.ledger = new EconomyLedger(EconomyLedger.toCents(100), 100);
+        Random seeds = new Random(seed);
+        for (int i = 0; i < roomCount; i++) {
+            addRoom(new GameWorld(seeds.nextLong(), GameWorld.DEFAULT_WIDTH, GameWorld.DEFAULT_HEIGHT, ledger));
+        }
+        for (int i = 1; i < roomCount; i++) {
+            connect(i - 1, i);
+        }
+        this.threads = Math.max(1, Math.min(roomCount, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Adds a room, which must use the venue's ledger. Only the first room is open to the street.
+     * @param room The room
+     */
+    private void addRoom(GameWorld room) {
+        int index = rooms.size();
+        rooms.add(room);
+        exits.add(new ArrayList<>());
+        entrances.add(new ArrayList<>());
+        leaving.add(new ArrayList<>());
+        room.setOpenToStreet(index == 0);
+        room.setHandOff(this::handOff);
+        tasks.add(() -> {
+            tickRoom(index);
+            return null;
+        });
+    }
+
+    /**
+     * Connects two rooms with a doorway each way.
+     * @param a Index of one room
+     * @param b Index of the other room
+     */
+    public void connect(int a, int b) {
+        Doorway ab = new Doorway();
+        Doorway ba = new Doorway();
+        exits.get(a).add(ab);
+        entrances.get(b).add(ab);
+        exits.get(b).add(ba);
+        entrances.get(a).add(ba);
+    }
+
+    /**
+     * Advances every room by one tick, each on its own worker, then moves the customers who walked through doorways into
+     * the doorways and dispatches the events of all rooms on this thread. With a single room or a single core the rooms
+     * are advanced on this thread, which gives the same result without the hand-over to the workers.
+     */
+    public void tick() {
+        tick(1);
+    }
+
+    /**
+     * Advances every room by a step of several ticks at once, as tick() does for one. The rooms are handed to the
+     * workers and their events dispatched once for the whole step, so a long step costs much less than its ticks one
+     * by one; customers move between rooms at the end of the step.
+     * @param ticks Number of ticks in the step
+     */
+    public void tick(int ticks) {
+        stepTicks = ticks;
+        for (GameWorld room : rooms) {
+            room.beginTick();
+        }
+        if (threads == 1) {
+            for (int i = 0; i < rooms.size(); i++) {
+                tickRoom(i);
+            }
+        } else {
+            try {
+                for (Future<Void> result : getWorkers().invokeAll(tasks)) {
+                    try {
+                        result.get();
+                    } catch (ExecutionException e) {
+                        e.getCause().printStackTrace();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        enterDoorways();
+        for (GameWorld room : rooms) {
+            room.flushEvents();
+        }
+    }
+
+    /**
+     * Puts the customers who walked through doorways during the tick in the doorways' queues, in room order and in the
+     * order they left each room. A customer who finds their doorway full leaves the venue instead.
+     */
+    private void enterDoorways() {
+        for (int i = 0; i < rooms.size(); i++) {
+            for (Exit exit : leaving.get(i)) {
+                if (!exit.doorway.queue.offer(exit.customer)) {
+                    rooms.get(i).publishLeft(exit.customer);
+                }
+            }
+            leaving.get(i).clear();
+        }
+    }
+
+    /**
+     * Takes in the customers waiting at a room's doorways, for as long as the room has space, and advances the room.
+     * Runs on the room's worker.
+     * @param index Index of the room
+     */
+    private void tickRoom(int index) {
+        GameWorld room = rooms.get(index);
+        if (!room.isPaused()) {
+            for (Doorway doorway : entrances.get(index)) {
+                Customer customer;
+                while ((customer = doorway.queue.peek()) != null && room.acceptCustomer(customer)) {
+                    doorway.queue.poll();
+                }
+            }
+        }
+        room.advance(stepTicks);
+    }
+
+    /**
+     * Decides where a customer who walked out of a room goes: through a random doorway of the room, or out of the
+     * venue. Customers leave when they have seen enough rooms or when they choose to. Those going through a doorway are
+     * set aside until every room has finished the tick. Runs on the room's worker.
+     * @param from The room the customer left
+     * @param customer The customer
+     * @return True if the customer went through a doorway
+     */
+    private boolean handOff(GameWorld from, Customer customer) {
+        int index = rooms.indexOf(from);
+        ArrayList<Doorway> doorways = exits.get(index);
+        if (doorways.isEmpty() || customer.getRoomsVisited() >= MAX_ROOMS_VISITED) {
+            return false;
+        }
+        int choice = from.getRandom().nextInt(doorways.size() + 1);
+        if (choice == doorways.size()) {
+            return false;
+        }
+        leaving.get(index).add(new Exit(doorways.get(choice), customer));
+        return true;
+    }
+
+    /**
+     * Gets the pool of room workers, creating it on first use with one daemon thread per room, up to one per core.
+     * @return The workers
+     */
+    private ExecutorService getWorkers() {
+        if (workers == null) {
+            workers = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "venue-room");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return workers;
+    }
+
+    /**
+     * Pauses or resumes every room.
+     * @param paused True to pause, false to resume
+     */
+    public void setPaused(boolean paused) {
+        for (GameWorld room : rooms) {
+            room.setPaused(paused);
+        }
+    }
+
+    /**
+     * Stops the room workers.
+     */
+    public void close() {
+        if (workers != null) {
+            workers.shutdown();
+            workers = null;
+        }
+    }
+
+    /**
+     * Counts the customers in all rooms.
+     * @return The number of customers in the venue
+     */
+    public int getCustomerCount() {
+        int count = 0;
+        for (GameWorld room : rooms) {
+            count += room.getCustomers().size();
+        }
+        return count;
+    }
+
+    // Getters for the Venue class attributes.
+    public EconomyLedger getLedger() { return ledger; }
+    public List<GameWorld> getRooms() { return rooms; }
+    public GameWorld getRoom(int index) { return rooms.get(index); }
+    public int getRoomCount() { return rooms.size(); }
+
+    /**
+     * Runs a venue headlessly and prints how it went and how long it took.
+     * Usage: java Venue [--rooms 8] [--hours 8] [--seed 1] [--capacity 10] [--arrival-rate 0]
+     * @param args The arguments
+     */
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        int roomCount = 8;
+        double hours = 8;
+        long seed = 1;
+        int capacity = GameWorld.DEFAULT_CUSTOMER_CAPACITY;
+        double arrivalRate = 0;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--rooms": roomCount = Integer.parseInt(args[i + 1]); break;
+                case "--hours": hours = Double.parseDouble(args[i + 1]); break;
+                case "--seed": seed = Long.parseLong(args[i + 1]); break;
+                case "--capacity": capacity = Integer.parseInt(args[i + 1]); break;
+                case "--arrival-rate": arrivalRate = Double.parseDouble(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        Venue venue = new Venue(seed, roomCount);
+        Random layoutRandom = new Random(seed);
+        for (GameWorld room : venue.getRooms()) {
+            ShopLayout.random(new Random(layoutRandom.nextLong()), 500, room.getWidth(), room.getHeight()).applyTo(room);
+            room.setCustomerCapacity(capacity);
+            if (arrivalRate > 0) {
+                room.setArrivalRate(arrivalRate);
+            }
+        }
+        long ticks = (long) (hours * 3_600_000 / GameWorld.TICK_MILLIS);
+        long start = System.nanoTime();
+        for (long t = 0; t < ticks; t++) {
+            venue.tick();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        venue.close();
+
+        for (int i = 0; i < venue.getRoomCount(); i++) {
+            GameWorld room = venue.getRoom(i);
+            System.out.printf("room %d: %d items, %d customers, %d waste%n", i, room.getItems().size(), room.getCustomers().size(), room.getWasteList().size());
+        }
+        System.out.printf("%d rooms, %.1f simulated hours in %.1f s, money %s, reputation %.2f%n", roomCount, hours, seconds,
+                EconomyLedger.formatMoney(venue.getLedger().getBalanceCents()), venue.getLedger().getReputation());
+    }
+}
@@ -1,7 +1,4 @@
 import java.awt.*;
-import java.io.File;
-import java.io.IOException;
-import javax.imageio.ImageIO;
 
 /**
  * The Waste class represents a piece of waste in the game. It handles loading its image,
@@ -10,7 +7,8 @@ import javax.imageio.ImageIO;
 public class Waste {
     private int x, y;
     private int size;
-    private Image image;
+    private Sprite image;
+    private boolean imageLoaded;
 
     /**
      * Constructor.
@@ -22,18 +20,15 @@ public class Waste {
         this.x = x;
         this.y = y;
         this.size = 30; // Set default size for waste
-        loadImage(); // Load the image for the waste
     }
 
     /**
-     * Loads the image for the waste from a file.
+     * Loads the image for the waste from the asset cache. This is done on the first render so headless simulations
+     * never decode it.
      */
     private void loadImage() {
-        try {
-            image = ImageIO.read(new File("waste.png"));
-        } catch (IOException e) {
-            e.printStackTrace(); // Print the stack trace if there is an error loading the image
-        }
+        imageLoaded = true;
+        image = AssetCache.getSprite("waste.png", size, size); // Shared between every piece of waste
     }
 
     /**
@@ -41,9 +36,11 @@ public class Waste {
      * @param g The Graphics object used for drawing
      */
     public void render(Graphics g) {
-        if (image != null) {
-            g.drawImage(image, x, y, size, size, null); // Draw the waste image
-        } else {
+        if (!imageLoaded) {
+            loadImage(); // Load the image for the waste
+        }
+
+        if (image == null || !image.draw(g, x, y)) {
             g.setColor(Color.GRAY); // Fallback color if image is not loaded
             g.fillRect(x, y, size, size); // Draw a gray rectangle as a placeholder
         }